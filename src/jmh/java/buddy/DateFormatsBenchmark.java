@@ -0,0 +1,84 @@
+package buddy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of date formatting on the paths that format every task:
+ * loading the task file and rendering the task list.
+ * The two {@code format} benchmarks isolate the cost of compiling a pattern per call
+ * against reusing a shared {@link DateFormats} formatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DateFormatsBenchmark {
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 3, 1, 19, 30);
+
+    @Param({"10000", "100000"})
+    private int taskCount;
+
+    private Path file;
+    private ArrayList<Task> tasks;
+
+    /**
+     * Writes a task file with a mix of deadlines and events.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String time = TIME.plusMinutes(i).format(DateFormats.INPUT);
+            if (i % 2 == 0) {
+                tasks.add(new Deadline("submit report " + i, time));
+            } else {
+                tasks.add(new Event("project meeting " + i, time, TIME.plusDays(1).format(DateFormats.INPUT)));
+            }
+        }
+        file = Files.createTempFile("buddy-bench", ".txt");
+        new Storage(file.toString()).save(new TaskList(tasks));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Task> load() throws IOException {
+        return new Storage(file.toString()).load();
+    }
+
+    @Benchmark
+    public String getTaskList() {
+        return Ui.getTaskList(tasks);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatWithNewFormatter() {
+        return TIME.format(DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a"));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatWithSharedFormatter() {
+        return TIME.format(DateFormats.DISPLAY);
+    }
+}
@@ -0,0 +1,81 @@
+package buddy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the throughput cost of each {@link Durability} level, both for journal appends,
+ * which is what each command costs in journal mode, and for full snapshots of the task file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DurabilityBenchmark {
+    @Param({"NONE", "FSYNC", "GROUP_COMMIT"})
+    private Durability durability;
+
+    @Param({"1000"})
+    private int taskCount;
+
+    private Path directory;
+    private Storage journaled;
+    private Storage snapshotOnly;
+    private TaskList taskList;
+    private Task task;
+
+    /**
+     * Creates a fresh task directory for each iteration, so the journal does not grow without bound.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("buddy-durability");
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        taskList = new TaskList(tasks);
+        task = new ToDo("appended task");
+
+        journaled = new Storage(directory.resolve("journaled.txt").toString(), true, Integer.MAX_VALUE);
+        journaled.setDurability(durability);
+        snapshotOnly = new Storage(directory.resolve("snapshot.txt").toString());
+        snapshotOnly.setDurability(durability);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journaled.close();
+        snapshotOnly.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void journalAppend() throws IOException {
+        journaled.recordAdd(task, taskList);
+    }
+
+    @Benchmark
+    public void snapshotSave() throws IOException {
+        snapshotOnly.save(taskList);
+    }
+}
@@ -0,0 +1,46 @@
+package buddy;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the full-scan and indexed fuzzy search paths for queries of different lengths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzySearchBenchmark {
+    @Param({"10000", "100000"})
+    private int taskCount;
+
+    @Param({"gm", "book", "meeting", "internationalisation"})
+    private String query;
+
+    private ArrayList<Task> tasks;
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() {
+        tasks = TaskFileGenerator.generateTasks(taskCount, TaskFileGenerator.DEFAULT_SEED);
+        taskList = new TaskList(new ArrayList<>(tasks));
+    }
+
+    @Benchmark
+    public String fullScan() {
+        return FuzzySearch.fuzzySearch(tasks, query);
+    }
+
+    @Benchmark
+    public String indexedFind() {
+        return taskList.findTasks(query);
+    }
+}
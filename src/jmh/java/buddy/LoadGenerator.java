@@ -0,0 +1,104 @@
+package buddy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a running {@link BuddyServer} from several connections at once and reports the requests per second
+ * and the latency percentiles. Each connection sends a batch of commands without waiting, then reads their
+ * responses; a command's latency runs from sending its batch to reading the end of its response.
+ */
+public class LoadGenerator {
+    private static final int DEFAULT_CONNECTIONS = 16;
+    private static final int DEFAULT_REQUESTS = 10_000;
+    private static final int DEFAULT_PIPELINE_DEPTH = 8;
+    private static final String DEFAULT_COMMAND = "list page 1 --limit 10";
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadGenerator <port | socket path> [connections] [requests per connection]"
+                    + " [pipeline depth] [command]");
+            System.exit(1);
+        }
+        SocketAddress address = args[0].chars().allMatch(Character::isDigit)
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))
+                : UnixDomainSocketAddress.of(Paths.get(args[0]));
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CONNECTIONS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REQUESTS;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PIPELINE_DEPTH;
+        String command = args.length > 4 ? args[4] : DEFAULT_COMMAND;
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(connections);
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            results.add(pool.submit(() -> {
+                run(address, command, requests, depth, latencies);
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%d requests over %d connections (pipeline depth %d) in %.2f s%n",
+                latencies.getCount(), connections, depth, seconds);
+        System.out.printf("%.0f requests/s%n", latencies.getCount() / seconds);
+        System.out.printf("latency (us): mean %.1f, p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                latencies.getMean() / NANOS_PER_MICRO,
+                latencies.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                latencies.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                latencies.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                latencies.getMax() / NANOS_PER_MICRO);
+    }
+
+    private static void run(SocketAddress address, String command, int requests, int depth,
+            LatencyHistogram latencies) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address);
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8)) {
+            String batch = (command + "\n").repeat(depth);
+            for (int sent = 0; sent < requests; sent += depth) {
+                int count = Math.min(depth, requests - sent);
+                long batchStart = System.nanoTime();
+                out.write(batch, 0, count * (command.length() + 1));
+                out.flush();
+                for (int i = 0; i < count; i++) {
+                    readResponse(in);
+                    latencies.record(System.nanoTime() - batchStart);
+                }
+            }
+        }
+    }
+
+    private static void readResponse(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(".")) {
+                return;
+            }
+        }
+        throw new IOException("The server closed the connection mid-response");
+    }
+}
@@ -0,0 +1,115 @@
+package buddy;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Parser#parseCommand} for each command type, without any disk I/O.
+ * Commands that add or delete a task are paired with the opposite change made directly on the
+ * TaskList, so the list keeps the same size for the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    @Param({"1000"})
+    private int taskCount;
+
+    private TaskList taskList;
+    private Storage storage;
+
+    /**
+     * Storage that ignores every change, so only parsing and the TaskList operation are measured.
+     */
+    private static class DiscardingStorage extends Storage {
+        DiscardingStorage() {
+            super("unused.txt");
+        }
+
+        @Override
+        public void save(TaskList taskList) {
+        }
+
+        @Override
+        public void recordAdd(Task task, TaskList taskList) {
+        }
+
+        @Override
+        public void recordMark(int index, TaskList taskList) {
+        }
+
+        @Override
+        public void recordUnmark(int index, TaskList taskList) {
+        }
+
+        @Override
+        public void recordDelete(int index, TaskList taskList) {
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskList = new TaskList(TaskFileGenerator.generateTasks(taskCount, TaskFileGenerator.DEFAULT_SEED));
+        storage = new DiscardingStorage();
+    }
+
+    @Benchmark
+    public String list() throws IOException {
+        return Parser.parseCommand("list", taskList, storage);
+    }
+
+    @Benchmark
+    public String todo() throws IOException {
+        String response = Parser.parseCommand("todo read book", taskList, storage);
+        taskList.deleteTask(taskList.size());
+        return response;
+    }
+
+    @Benchmark
+    public String deadline() throws IOException {
+        String response = Parser.parseCommand("deadline return book /by 2025-03-01 1930", taskList, storage);
+        taskList.deleteTask(taskList.size());
+        return response;
+    }
+
+    @Benchmark
+    public String event() throws IOException {
+        String response = Parser.parseCommand(
+                "event project meeting /from 2025-03-08 1530 /to 2025-03-08 1730", taskList, storage);
+        taskList.deleteTask(taskList.size());
+        return response;
+    }
+
+    @Benchmark
+    public String mark() throws IOException {
+        return Parser.parseCommand("mark 500", taskList, storage);
+    }
+
+    @Benchmark
+    public String unmark() throws IOException {
+        return Parser.parseCommand("unmark 500", taskList, storage);
+    }
+
+    @Benchmark
+    public String delete() throws IOException {
+        Task last = taskList.get(taskList.size() - 1);
+        String response = Parser.parseCommand("delete " + taskList.size(), taskList, storage);
+        taskList.addTask(last);
+        return response;
+    }
+
+    @Benchmark
+    public String find() throws IOException {
+        return Parser.parseCommand("find meeting", taskList, storage);
+    }
+}
@@ -0,0 +1,76 @@
+package buddy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures loading and saving generated task files of different sizes in both storage formats, and the
+ * time from opening a file to showing the first page of tasks with and without lazy loading.
+ * Lazy loading only applies to text files, so the {@code .bin} lazy results match the eager ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    private static final int FIRST_PAGE_SIZE = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({".txt", ".bin"})
+    private String extension;
+
+    private Path file;
+    private Storage storage;
+    private Storage lazyStorage;
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("buddy-storage", extension);
+        ArrayList<Task> tasks = TaskFileGenerator.writeTaskFile(file, taskCount, TaskFileGenerator.DEFAULT_SEED);
+        storage = new Storage(file.toString());
+        lazyStorage = new Storage(file.toString());
+        lazyStorage.setLazyLoading(true);
+        taskList = new TaskList(tasks);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Task> load() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        storage.save(taskList);
+    }
+
+    @Benchmark
+    public String firstPageEager() throws IOException {
+        return new TaskList(storage.load()).listTasks(0, FIRST_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public String firstPageLazy() throws IOException {
+        return new TaskList(lazyStorage.load()).listTasks(0, FIRST_PAGE_SIZE);
+    }
+}
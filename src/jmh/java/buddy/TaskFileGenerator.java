@@ -0,0 +1,97 @@
+package buddy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates synthetic task lists and task files for benchmarks.
+ * The same count and seed always produce the same tasks, so runs can be compared.
+ *
+ * <p>Usage: {@code TaskFileGenerator <file> <task count> [seed]}. The file is written in the
+ * binary format if its name ends in {@code .bin}, and in the text format otherwise.</p>
+ */
+public class TaskFileGenerator {
+    /** The seed used when none is given. */
+    public static final long DEFAULT_SEED = 42;
+
+    private static final String[] WORDS = {
+        "read", "book", "buy", "milk", "submit", "report", "project", "meeting", "exams", "return",
+        "library", "call", "mum", "review", "pull", "request", "plan", "trip", "team", "lunch",
+        "pay", "bills", "clean", "room", "gym", "session", "write", "essay", "update", "resume",
+    };
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int MINUTES_IN_TWO_YEARS = 2 * 365 * 24 * 60;
+
+    /**
+     * Generates a list of tasks: half to-dos, a quarter deadlines and a quarter events,
+     * with a few words of description each and about a third of them done.
+     *
+     * @param count The number of tasks to generate.
+     * @param seed The random seed.
+     * @return The generated tasks.
+     */
+    public static ArrayList<Task> generateTasks(int count, long seed) {
+        Random random = new Random(seed);
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = randomDescription(random) + " " + i;
+            boolean isDone = random.nextInt(3) == 0;
+            LocalDateTime time = START.plusMinutes(random.nextInt(MINUTES_IN_TWO_YEARS));
+            switch (random.nextInt(4)) {
+            case 0:
+                tasks.add(new Deadline(description, time, isDone));
+                break;
+            case 1:
+                tasks.add(new Event(description, time, time.plusMinutes(30 + random.nextInt(240)), isDone));
+                break;
+            default:
+                tasks.add(new ToDo(description, isDone));
+                break;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes a generated task file.
+     *
+     * @param file The file to write. Its extension picks the storage format.
+     * @param count The number of tasks to generate.
+     * @param seed The random seed.
+     * @return The generated tasks.
+     * @throws IOException If the file cannot be written.
+     */
+    public static ArrayList<Task> writeTaskFile(Path file, int count, long seed) throws IOException {
+        ArrayList<Task> tasks = generateTasks(count, seed);
+        new Storage(file.toString()).save(new TaskList(tasks));
+        return tasks;
+    }
+
+    /**
+     * Writes a generated task file from the command line.
+     *
+     * @param args The file, the task count and optionally the seed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TaskFileGenerator <file> <task count> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        writeTaskFile(Paths.get(args[0]), Integer.parseInt(args[1]), seed);
+        System.out.println("Wrote " + args[1] + " tasks to " + args[0] + ".");
+    }
+
+    private static String randomDescription(Random random) {
+        StringBuilder description = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        int extraWords = random.nextInt(4);
+        for (int i = 0; i < extraWords; i++) {
+            description.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package buddy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the throughput of one TaskList shared by several threads, for reads alone and for reads
+ * mixed with one write in ten. Run it once per thread count to see how it scales, e.g.
+ * {@code ./gradlew jmh -PjmhInclude=TaskListBenchmark -PjmhThreads=16} for 1, 2, 4, 8 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskListBenchmark {
+    private static final int PAGE_SIZE = 50;
+    private static final int WRITE_EVERY = 10;
+
+    @Param({"10000"})
+    private int taskCount;
+
+    private TaskList taskList;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskList = new TaskList(TaskFileGenerator.generateTasks(taskCount, TaskFileGenerator.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public String listPage() throws Exception {
+        return readPage();
+    }
+
+    @Benchmark
+    public String findTask() {
+        return taskList.findTasks("book");
+    }
+
+    /** Mostly reads, with one task in ten marked or unmarked, which leaves the snapshot in place. */
+    @Benchmark
+    public String mixedWithMarks() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(WRITE_EVERY) == 0) {
+            int index = random.nextInt(taskCount) + 1;
+            return random.nextBoolean() ? taskList.markTaskAsDone(index) : taskList.unmarkTaskAsDone(index);
+        }
+        return readPage();
+    }
+
+    /** Mostly reads, with one task in ten added and another deleted, so the snapshot must be copied again. */
+    @Benchmark
+    public String mixedWithAddsAndDeletes() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(WRITE_EVERY) == 0) {
+            taskList.addTask(new ToDo("benchmark task"));
+            return taskList.deleteTask(random.nextInt(taskCount) + 1);
+        }
+        return readPage();
+    }
+
+    private String readPage() throws Exception {
+        StringBuilder page = new StringBuilder();
+        int offset = ThreadLocalRandom.current().nextInt(taskCount / PAGE_SIZE) * PAGE_SIZE;
+        taskList.writeTasks(offset, PAGE_SIZE, page);
+        return page.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package buddy;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures rendering the task list shown by the {@code list} command, with and without tasks keeping
+ * their rendered text between calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UiBenchmark {
+    @Param({"1000", "100000"})
+    private int taskCount;
+
+    @Param({"true", "false"})
+    private boolean isRenderCaching;
+
+    private ArrayList<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        Task.setRenderCaching(isRenderCaching);
+        tasks = TaskFileGenerator.generateTasks(taskCount, TaskFileGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Task.setRenderCaching(true);
+    }
+
+    @Benchmark
+    public String getTaskList() {
+        return Ui.getTaskList(tasks);
+    }
+
+    @Benchmark
+    public String encodeAll() {
+        StringBuilder sb = new StringBuilder();
+        for (Task task : tasks) {
+            sb.append(task.toFileFormat()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package buddy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs many task commands as one unit: the changes are saved once when the batch ends, and the
+ * result is a short summary instead of one message per command.
+ */
+final class Batch {
+    /** The commands that may appear in a batch. */
+    static final Set<String> ALLOWED_COMMANDS = Set.of("todo", "deadline", "event", "mark", "unmark", "delete");
+
+    /** The most failures listed in the summary. The rest are only counted. */
+    static final int MAX_LISTED_FAILURES = 5;
+
+    private Batch() {
+    }
+
+    /**
+     * Splits the arguments of the {@code batch} command into commands, at each ';'.
+     *
+     * @param arguments The commands separated by semicolons.
+     * @return The commands, trimmed, without empty ones.
+     */
+    static List<String> split(String arguments) {
+        List<String> commands = new ArrayList<>();
+        int start = 0;
+        while (start <= arguments.length()) {
+            int end = arguments.indexOf(';', start);
+            if (end < 0) {
+                end = arguments.length();
+            }
+            String command = arguments.substring(start, end).trim();
+            if (!command.isEmpty()) {
+                commands.add(command);
+            }
+            start = end + 1;
+        }
+        return commands;
+    }
+
+    /**
+     * Runs each command against the task list. Call it between {@link Storage#beginBatch()} and
+     * {@link Storage#endBatch()} so that the changes are saved once. A command fails if it is not
+     * allowed in a batch or does not change the task list. Blank lines and lines starting with '#'
+     * are skipped.
+     *
+     * @param commands The commands to run.
+     * @param taskList The task list to modify.
+     * @param storage  The storage system to save changes to the task list.
+     * @return A summary of how many commands succeeded, and which failed.
+     * @throws IOException If an error occurs while saving to the storage.
+     */
+    static String run(Iterable<String> commands, TaskList taskList, Storage storage) throws IOException {
+        int succeeded = 0;
+        int failed = 0;
+        List<String> failures = new ArrayList<>();
+        int number = 0;
+
+        for (String command : commands) {
+            number++;
+            String line = command.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String error;
+            CommandInput input = CommandInput.parse(line, Metrics.start());
+            if (ALLOWED_COMMANDS.contains(input.getKeyword())) {
+                long version = taskList.getVersion();
+                String response = Parser.execute(input, taskList, storage);
+                error = taskList.getVersion() == version ? response : null;
+            } else {
+                error = "'" + input.getKeyword() + "' cannot be used in a batch.";
+            }
+
+            if (error == null) {
+                succeeded++;
+            } else {
+                failed++;
+                if (failures.size() < MAX_LISTED_FAILURES) {
+                    failures.add(number + ". " + line + ": " + error);
+                }
+            }
+        }
+        return Ui.getBatchSummary(succeeded, failed, failures, taskList.size());
+    }
+}
@@ -0,0 +1,238 @@
+package buddy;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads and writes the compact binary task file format.
+ *
+ * <p>A file starts with the magic bytes {@code BDYT}, a format version byte and the highest ID ever
+ * given to a task as a varint, so that the ID of a deleted task is not reused. Each task is then
+ * stored as a tag byte holding the task type in its low bits and the done flag in its high bit,
+ * the task ID as a varint, the UTF-8 description prefixed by its length as a varint, and, for
+ * deadlines and events, the {@code by}, {@code from} and {@code to} times as zigzag varints of
+ * minutes since the epoch.</p>
+ */
+final class BinaryTaskFile {
+    /** The file extension that selects this format. */
+    static final String EXTENSION = ".bin";
+
+    private static final byte[] MAGIC = {'B', 'D', 'Y', 'T'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int TYPE_TODO = 1;
+    private static final int TYPE_DEADLINE = 2;
+    private static final int TYPE_EVENT = 3;
+    private static final int TYPE_MASK = 0x0F;
+    private static final int DONE_FLAG = 0x80;
+
+    private BinaryTaskFile() {
+    }
+
+    /**
+     * Writes a complete binary task file to a stream. The stream is flushed but not closed.
+     *
+     * @param stream The stream to write to.
+     * @param tasks The tasks to write, in order.
+     * @param lastId The highest ID ever given to a task.
+     * @throws IOException If an error occurs while writing.
+     */
+    static void write(OutputStream stream, List<Task> tasks, long lastId) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(out, lastId);
+        for (Task task : tasks) {
+            writeTask(out, task);
+        }
+        out.flush();
+    }
+
+    /**
+     * Opens a binary task file for reading.
+     *
+     * @param path The file to read.
+     * @return A reader over the tasks in the file.
+     * @throws IOException If the file cannot be opened or does not have a supported header.
+     */
+    static TaskReader open(Path path) throws IOException {
+        return new Reader(path);
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        int type = task instanceof Deadline ? TYPE_DEADLINE : task instanceof Event ? TYPE_EVENT : TYPE_TODO;
+        out.writeByte(type | (task.isDone() ? DONE_FLAG : 0));
+        writeVarint(out, task.getId());
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, description.length);
+        out.write(description);
+
+        if (task instanceof Deadline) {
+            writeVarint(out, zigzag(toEpochMinute(((Deadline) task).getBy())));
+        } else if (task instanceof Event) {
+            writeVarint(out, zigzag(toEpochMinute(((Event) task).getFrom())));
+            writeVarint(out, zigzag(toEpochMinute(((Event) task).getTo())));
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt task file: varint is too long.");
+    }
+
+    /**
+     * Reads tasks from a binary task file. A record cut short at the end of the file, as left
+     * behind by an interrupted write, is treated as the end of the file.
+     */
+    private static class Reader implements TaskReader {
+        private final DataInputStream in;
+        private Task next;
+        private boolean isFinished;
+        private long lastId;
+
+        Reader(Path path) throws IOException {
+            InputStream fileIn = Files.newInputStream(path);
+            this.in = new DataInputStream(new BufferedInputStream(fileIn, BUFFER_SIZE));
+            try {
+                readHeader();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        private void readHeader() throws IOException {
+            byte[] magic = new byte[MAGIC.length];
+            int read = in.readNBytes(magic, 0, magic.length);
+            if (read == 0) {
+                isFinished = true; // An empty file holds no tasks.
+                return;
+            }
+            if (read < magic.length || !Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a binary task file.");
+            }
+            int version = in.read();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary task file version: " + version);
+            }
+            lastId = readVarint(in);
+        }
+
+        @Override
+        public long getLastId() {
+            return lastId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !isFinished) {
+                try {
+                    next = readTask();
+                } catch (EOFException e) {
+                    next = null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                isFinished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Task task = next;
+            next = null;
+            return task;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private Task readTask() throws IOException {
+            int tag = in.read();
+            if (tag < 0) {
+                return null;
+            }
+            boolean isDone = (tag & DONE_FLAG) != 0;
+            long id = readVarint(in);
+            long length = readVarint(in);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt task file: description is too long.");
+            }
+            byte[] bytes = new byte[(int) length];
+            in.readFully(bytes);
+            String description = new String(bytes, StandardCharsets.UTF_8);
+
+            Task task;
+            switch (tag & TYPE_MASK) {
+            case TYPE_TODO:
+                task = new ToDo(description, isDone);
+                break;
+            case TYPE_DEADLINE:
+                task = new Deadline(description, fromEpochMinute(unzigzag(readVarint(in))), isDone);
+                break;
+            case TYPE_EVENT: {
+                LocalDateTime from = fromEpochMinute(unzigzag(readVarint(in)));
+                LocalDateTime to = fromEpochMinute(unzigzag(readVarint(in)));
+                task = new Event(description, from, to, isDone);
+                break;
+            }
+            default:
+                throw new IOException("Corrupt task file: unknown task type " + (tag & TYPE_MASK));
+            }
+            task.setId(id);
+            return task;
+        }
+    }
+}
@@ -3,41 +3,67 @@ package buddy;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The main class for the Buddy application.
  * Handles initialization, user interaction and execution flow.
  */
 public class Buddy {
-    private static final String FILE_PATH = Paths.get("data", "Buddy.txt").toString();
+    /** The task file, which can be overridden with {@code -Dbuddy.file=...}, e.g. to use a {@code .bin} file. */
+    private static final String FILE_PATH = System.getProperty("buddy.file", Paths.get("data", "Buddy.txt").toString());
     private final Storage storage;
     private final TaskList taskList;
 
     /**
      * Constructs a new instance of Buddy.
      * Initializes storage, loads tasks from file, and sets up the task list.
+     * Changes are saved in the background so that commands do not wait for the disk.
      */
     public Buddy() {
-        this.storage = new Storage(FILE_PATH);
-        ArrayList<Task> loadedTasks;
+        this(FILE_PATH);
+    }
+
+    /**
+     * Constructs a new instance of Buddy that keeps its tasks in the given file.
+     *
+     * @param filePath The task file.
+     */
+    Buddy(String filePath) {
+        this.storage = new Storage(filePath, true);
+        storage.setDurability(Durability.parse(System.getProperty("buddy.durability"), Durability.FSYNC));
+        storage.enableBackgroundSaves(SaveScheduler.DEFAULT_DEBOUNCE_MILLIS);
+        storage.setLazyLoading(Boolean.getBoolean("buddy.lazyLoad"));
+        List<Task> loadedTasks;
         try {
-            loadedTasks = (ArrayList<Task>) storage.load();
+            loadedTasks = storage.load();
         } catch (IOException e) {
             Ui.getErrorMessage("Error loading tasks from file: " + e.getMessage());
             loadedTasks = new ArrayList<>();
         }
         assert loadedTasks != null : "Loaded tasks should never be null";
-        this.taskList = new TaskList(loadedTasks);
+        this.taskList = new TaskList(loadedTasks, storage.getLastId());
         assert this.taskList != null : "TaskList should not be null after initialization";
     }
 
 
+    /**
+     * Saves any pending changes and stops the background threads that save them.
+     * This Buddy should not be used afterwards.
+     *
+     * @throws IOException If the changes cannot be saved.
+     */
+    public void close() throws IOException {
+        storage.close();
+    }
+
     /**
      * Processes the user's input and returns the appropriate response.
      *
      * This method interprets the input provided by the user and generates a
-     * response accordingly. If the input is "bye", it handles the termination
-     * message. For all other inputs, it delegates the parsing and task
+     * response accordingly. If the input is "bye", it saves any pending changes and
+     * handles the termination message. For all other inputs, it delegates the parsing and task
      * management logic to the {@code Parser} class.
      *
      * @param input The user's input as a string.
@@ -45,20 +71,43 @@ public class Buddy {
      *         If an exception occurs during processing, an error message is returned.
      */
     public String getResponse(String input) {
+        StringBuilder response = new StringBuilder();
+        getResponse(input, response::append);
+        return response.toString();
+    }
+
+    /**
+     * Processes the user's input like {@link #getResponse(String)}, but hands a long response to
+     * {@code chunks} a few hundred lines at a time as it is produced, so it can be shown progressively.
+     * It is safe to call from several threads: commands that change tasks run one at a time, together
+     * with saving the change, while read-only commands such as {@code list} run alongside them.
+     * If a background save has failed since the last command, a warning is added to the response.
+     *
+     * @param input The user's input as a string.
+     * @param chunks Receives the response in one or more pieces, in order.
+     */
+    public void getResponse(String input, Consumer<String> chunks) {
         assert input != null : "Input should not be null";
 
+        ChunkedWriter response = new ChunkedWriter(Ui.RESPONSE_CHUNK_LINES, chunks);
         try {
-            StringBuilder response = new StringBuilder();
-
             if (input.strip().equals("bye")) {
+                storage.flush();
                 response.append("Goodbye👋! Hope to see you again soon.");
+            } else if (Parser.isReadOnly(input)) {
+                response.append(Parser.parseCommand(input, taskList, storage, response));
             } else {
-                response.append(Parser.parseCommand(input, taskList, storage));
+                synchronized (taskList) {
+                    response.append(Parser.parseCommand(input, taskList, storage, response));
+                }
             }
-
-            return response.toString();
         } catch (Exception e) {
-            return "Error: " + e.getMessage();
+            response.append("Error: " + e.getMessage());
+        }
+        IOException saveError = storage.takeBackgroundSaveError();
+        if (saveError != null) {
+            response.append("\n").append(Ui.getSaveFailedMessage(saveError.getMessage()));
         }
+        response.flush();
     }
 }
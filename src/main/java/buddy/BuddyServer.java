@@ -0,0 +1,214 @@
+package buddy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A headless server that lets local tools drive Buddy over a socket, one command per line.
+ * Every connection shares one {@link Buddy}, and so one task list and task file.
+ *
+ * <p>Each response is sent as its lines followed by a line holding a single dot. A response line that
+ * starts with a dot gets a second one, which clients should remove. Clients may send several commands
+ * without waiting for their responses; the responses come back in order, and are only flushed once
+ * every command already received has been answered.</p>
+ *
+ * <p>Commands that open a file named by the client, such as {@code import} and {@code stats dump},
+ * are refused, so that a client cannot read or write files with the server's rights.</p>
+ *
+ * <p>Each connection is handled on its own virtual thread when the JVM has them (Java 21 and later),
+ * and on a platform thread otherwise.</p>
+ */
+public class BuddyServer {
+    /** The TCP port used when none is given. */
+    public static final int DEFAULT_PORT = 7878;
+
+    private final Buddy buddy;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService connections = newConnectionExecutor();
+
+    /**
+     * Constructs a BuddyServer listening on the given address.
+     *
+     * @param buddy The Buddy that runs every command.
+     * @param address A loopback TCP address, or a {@link UnixDomainSocketAddress}.
+     * @throws IOException If the address cannot be bound.
+     */
+    public BuddyServer(Buddy buddy, SocketAddress address) throws IOException {
+        this.buddy = buddy;
+        this.serverChannel = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        serverChannel.bind(address);
+    }
+
+    /**
+     * Starts a server for the task file chosen with {@code -Dbuddy.file=...}. The argument is a TCP port
+     * on the loopback interface, or the path of a Unix-domain socket; it defaults to port {@value #DEFAULT_PORT}.
+     *
+     * @param args The optional port or socket path.
+     * @throws IOException If the server cannot be started.
+     */
+    public static void main(String[] args) throws IOException {
+        String where = args.length > 0 ? args[0] : String.valueOf(DEFAULT_PORT);
+        SocketAddress address;
+        if (where.chars().allMatch(Character::isDigit)) {
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(where));
+        } else {
+            Path socketPath = Paths.get(where);
+            Files.deleteIfExists(socketPath);
+            address = UnixDomainSocketAddress.of(socketPath);
+        }
+
+        Buddy buddy = new Buddy();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                buddy.close();
+            } catch (IOException e) {
+                System.err.println("Error saving tasks on exit: " + e.getMessage());
+            }
+        }));
+        BuddyServer server = new BuddyServer(buddy, address);
+        System.out.println("Buddy is listening on " + server.getAddress());
+        server.serve();
+    }
+
+    /**
+     * Returns the address the server is bound to, which gives the port chosen when binding to port 0.
+     *
+     * @return The bound address.
+     * @throws IOException If the server has been closed.
+     */
+    public SocketAddress getAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Accepts connections until the server is closed, handling each one on its own thread.
+     *
+     * @throws IOException If accepting a connection fails other than by the server being closed.
+     */
+    public void serve() throws IOException {
+        while (serverChannel.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                if (!serverChannel.isOpen()) {
+                    return;
+                }
+                throw e;
+            }
+            connections.execute(() -> handle(channel));
+        }
+    }
+
+    /**
+     * Stops accepting connections. Connections already open are closed by their clients.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    public void close() throws IOException {
+        serverChannel.close();
+        connections.shutdown();
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel;
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(
+                        Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                writeResponse(line, out);
+                if (line.strip().equals("bye")) {
+                    break;
+                }
+                if (!in.ready()) {
+                    out.flush(); // Answer a pipelined batch with one write once it has all been read.
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away; there is nobody left to tell.
+        }
+    }
+
+    private void writeResponse(String command, Writer out) throws IOException {
+        if (Parser.usesLocalFiles(command)) {
+            writeEscaped(Ui.getErrorMessage("This command is not available over the server."), true, out);
+            out.write("\n.\n");
+            return;
+        }
+        boolean[] isLineStart = {true};
+        buddy.getResponse(command, chunk -> {
+            try {
+                isLineStart[0] = writeEscaped(chunk, isLineStart[0], out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.write(isLineStart[0] ? ".\n" : "\n.\n");
+    }
+
+    /**
+     * Writes part of a response, doubling a dot at the start of any line so that no line of it can be
+     * taken for the end of the response.
+     *
+     * @param text The text to write.
+     * @param isLineStart Whether the text starts a new line.
+     * @param out Where to write the text.
+     * @return Whether the text ended with a line break.
+     * @throws IOException If writing fails.
+     */
+    static boolean writeEscaped(String text, boolean isLineStart, Writer out) throws IOException {
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isLineStart && text.charAt(i) == '.') {
+                out.write(text, lineStart, i - lineStart);
+                out.write('.');
+                lineStart = i;
+            }
+            isLineStart = text.charAt(i) == '\n';
+        }
+        out.write(text, lineStart, text.length() - lineStart);
+        return isLineStart;
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread if the JVM supports them, found by
+     * reflection so that Buddy still builds and runs on Java 17.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "buddy-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package buddy;
+
+import java.io.Flushable;
+import java.util.function.Consumer;
+
+/**
+ * An {@link Appendable} that collects text and hands it on in chunks of a fixed number of lines,
+ * so a long response can be shown while the rest of it is still being written.
+ */
+public class ChunkedWriter implements Appendable, Flushable {
+    private final int linesPerChunk;
+    private final Consumer<String> sink;
+    private final StringBuilder buffer = new StringBuilder();
+    private int lines;
+
+    /**
+     * Constructs a ChunkedWriter.
+     *
+     * @param linesPerChunk The number of complete lines in each chunk.
+     * @param sink Receives each chunk, in order.
+     */
+    public ChunkedWriter(int linesPerChunk, Consumer<String> sink) {
+        assert linesPerChunk > 0 : "A chunk should hold at least one line";
+        assert sink != null : "Sink should not be null";
+        this.linesPerChunk = linesPerChunk;
+        this.sink = sink;
+    }
+
+    @Override
+    public ChunkedWriter append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public ChunkedWriter append(CharSequence text, int start, int end) {
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                buffer.append(text, lineStart, i + 1);
+                lineStart = i + 1;
+                if (++lines == linesPerChunk) {
+                    emit();
+                }
+            }
+        }
+        buffer.append(text, lineStart, end);
+        return this;
+    }
+
+    @Override
+    public ChunkedWriter append(char c) {
+        buffer.append(c);
+        if (c == '\n' && ++lines == linesPerChunk) {
+            emit();
+        }
+        return this;
+    }
+
+    /**
+     * Hands on whatever has been written since the last chunk, if anything.
+     */
+    @Override
+    public void flush() {
+        if (buffer.length() > 0) {
+            emit();
+        }
+    }
+
+    private void emit() {
+        sink.accept(buffer.toString());
+        buffer.setLength(0);
+        lines = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package buddy;
+
+import java.io.IOException;
+
+/**
+ * A command that Buddy understands, registered with {@link Parser} under its keyword.
+ */
+@FunctionalInterface
+public interface Command {
+    /**
+     * Executes the command.
+     *
+     * @param input    The tokenised user input, whose arguments are everything after the keyword.
+     * @param taskList The task list to query or modify.
+     * @param storage  The storage system to save changes to the task list.
+     * @return A string response to be displayed to the user.
+     * @throws IOException If an error occurs while saving to the storage.
+     */
+    String execute(CommandInput input, TaskList taskList, Storage storage) throws IOException;
+}
@@ -0,0 +1,94 @@
+package buddy;
+
+/**
+ * A line of user input split once into its keyword and its arguments.
+ * It also times the phases of the command for {@link Metrics}.
+ */
+public final class CommandInput {
+    private final String keyword;
+    private final String arguments;
+    private final Appendable output;
+    private long lastLap;
+
+    private CommandInput(String keyword, String arguments, long start, Appendable output) {
+        this.keyword = keyword;
+        this.arguments = arguments;
+        this.lastLap = start;
+        this.output = output;
+    }
+
+    /**
+     * Splits a line of input at the first space after any leading whitespace.
+     * The keyword is lowercased and the arguments are trimmed.
+     *
+     * @param line  The user input.
+     * @param start The time the command started, from {@link Metrics#start()}.
+     * @return The tokenised input.
+     */
+    public static CommandInput parse(String line, long start) {
+        return parse(line, start, null);
+    }
+
+    /**
+     * Splits a line of input as {@link #parse(String, long)} does, for a caller that can take a long
+     * response as it is written.
+     *
+     * @param line   The user input.
+     * @param start  The time the command started, from {@link Metrics#start()}.
+     * @param output Where a command may stream its response, or null to return it as a string.
+     * @return The tokenised input.
+     */
+    public static CommandInput parse(String line, long start, Appendable output) {
+        assert line != null : "Input should not be null.";
+        int begin = 0;
+        while (begin < line.length() && Character.isWhitespace(line.charAt(begin))) {
+            begin++;
+        }
+        int end = begin;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        return new CommandInput(line.substring(begin, end).toLowerCase(), line.substring(end).trim(), start, output);
+    }
+
+    /**
+     * Returns the lowercased first word of the input, or an empty string if the input is blank.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the trimmed text after the keyword, or an empty string if there is none.
+     */
+    public String getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Returns where a command may stream a long response, or null if the response must be returned.
+     */
+    public Appendable getOutput() {
+        return output;
+    }
+
+    /**
+     * Records the time since the previous phase ended as the given phase of this command.
+     *
+     * @param phase The phase that has just finished.
+     */
+    public void endPhase(Metrics.Phase phase) {
+        endPhase(keyword, phase);
+    }
+
+    /**
+     * Records the time since the previous phase ended as the given phase of another command name,
+     * e.g. to group every unknown command under one name.
+     *
+     * @param command The name to record the phase under.
+     * @param phase The phase that has just finished.
+     */
+    public void endPhase(String command, Metrics.Phase phase) {
+        lastLap = Metrics.lap(command, phase, lastLap);
+    }
+}
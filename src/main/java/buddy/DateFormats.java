@@ -0,0 +1,28 @@
+package buddy;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Holds the date and time formatters shared by tasks, the parser and storage.
+ * {@link DateTimeFormatter} is immutable and thread-safe, so each pattern is compiled once
+ * here instead of on every parse or format call.
+ */
+public final class DateFormats {
+    /** The format of dates typed by the user and written to the task file, e.g. "2025-03-01 1930". */
+    public static final DateTimeFormatter INPUT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    /** The format used when showing tasks to the user, e.g. "Mar 01 2025, 7:30 pm". */
+    public static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
+
+    /** The compact 24-hour format returned by the formatted time getters, e.g. "Mar 01 2025 19:30". */
+    public static final DateTimeFormatter SHORT = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+
+    /** The format of a day without a time, e.g. "Mar 01 2025". */
+    public static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    /** The format of a time of day, e.g. "19:30". */
+    public static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private DateFormats() {
+    }
+}
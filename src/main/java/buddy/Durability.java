@@ -0,0 +1,42 @@
+package buddy;
+
+/**
+ * How hard {@link Storage} works to make sure that saved tasks survive a crash or power loss.
+ * Snapshots of the task file are always written to a temporary file and then moved over the
+ * task file, so a crash mid-save never leaves a half-written task file behind.
+ */
+public enum Durability {
+    /** Leaves flushing to the operating system. A power loss may lose recent changes. */
+    NONE,
+
+    /** Forces every snapshot and every journal write to disk before the save completes. */
+    FSYNC,
+
+    /**
+     * Forces every snapshot to disk, but forces journal writes at most once per
+     * {@link Storage#GROUP_COMMIT_MILLIS}, so bursts of changes share one disk flush. Writes held back
+     * are forced by a background thread when the interval ends, so a power loss may lose the changes
+     * of the last interval but no more.
+     */
+    GROUP_COMMIT;
+
+    /**
+     * Returns the durability level with the given name, ignoring case. An unknown or missing name
+     * prints a warning and gives the fallback, so a mistyped setting never stops Buddy from starting.
+     *
+     * @param name The name of the level, e.g. {@code "fsync"}, or null.
+     * @param fallback The level to use if the name is not recognised.
+     * @return The named level, or the fallback.
+     */
+    public static Durability parse(String name, Durability fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown durability '" + name + "', using " + fallback + ".");
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package buddy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index over the words of task descriptions, used to answer fuzzy keyword
+ * searches without scanning every task.
+ *
+ * <p>Every distinct word is filed under each string that can be obtained by deleting up to
+ * {@link #MAX_DISTANCE} characters from it. Two strings within that Levenshtein distance always
+ * share at least one such deletion, so a query only needs to verify the words filed under its own
+ * deletions, and the cost of a search depends on the number of matches rather than the number
+ * of tasks.</p>
+ */
+public class FuzzyIndex {
+    /** The largest Levenshtein distance at which a word still matches a keyword. */
+    static final int MAX_DISTANCE = 2;
+
+    /** Searches with fewer candidate words than this verify them sequentially. */
+    static final int PARALLEL_THRESHOLD = 4_096;
+
+    /** The number of candidate words each parallel subtask verifies without splitting further. */
+    private static final int CHUNK_SIZE = 1_024;
+
+    private final Map<String, Set<String>> wordsByDeletion = new HashMap<>();
+    private final Map<String, Set<Task>> tasksByWord = new HashMap<>();
+
+    /**
+     * Adds a task to the index. Tasks are reported by {@link #search(String)} in order of their IDs,
+     * which is the order in which they were added to the TaskList.
+     *
+     * @param task the task to index
+     */
+    public void add(Task task) {
+        for (String word : getDistinctWords(task)) {
+            Set<Task> postings = tasksByWord.get(word);
+            if (postings == null) {
+                postings = new HashSet<>();
+                tasksByWord.put(word, postings);
+                for (String deletion : getDeletions(word)) {
+                    wordsByDeletion.computeIfAbsent(deletion, key -> new HashSet<>()).add(word);
+                }
+            }
+            postings.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the index. Words that no longer occur in any task are dropped.
+     *
+     * @param task the task to remove
+     */
+    public void remove(Task task) {
+        for (String word : getDistinctWords(task)) {
+            Set<Task> postings = tasksByWord.get(word);
+            if (postings == null || !postings.remove(task) || !postings.isEmpty()) {
+                continue;
+            }
+            tasksByWord.remove(word);
+            for (String deletion : getDeletions(word)) {
+                Set<String> words = wordsByDeletion.get(deletion);
+                if (words != null && words.remove(word) && words.isEmpty()) {
+                    wordsByDeletion.remove(deletion);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks containing a word within {@link #MAX_DISTANCE} edits of the keyword.
+     * A short keyword can share a deletion with a large part of the vocabulary, so when there are
+     * at least {@link #PARALLEL_THRESHOLD} candidate words they are verified on the search pool
+     * chosen with {@link FuzzySearch#setParallelPool}.
+     *
+     * @param keyword the search term
+     * @return the matching tasks, in order of their IDs
+     */
+    public List<Task> search(String keyword) {
+        String query = keyword.toLowerCase();
+        Set<String> candidates = new HashSet<>();
+        for (String deletion : getDeletions(query)) {
+            Set<String> words = wordsByDeletion.get(deletion);
+            if (words != null) {
+                candidates.addAll(words);
+            }
+        }
+
+        List<String> matchingWords = FuzzySearch.filter(new ArrayList<>(candidates),
+                word -> FuzzySearch.withinDistance(word, query, MAX_DISTANCE), PARALLEL_THRESHOLD, CHUNK_SIZE);
+        Set<Task> found = new HashSet<>();
+        for (String word : matchingWords) {
+            found.addAll(tasksByWord.get(word));
+        }
+
+        List<Task> result = new ArrayList<>(found);
+        result.sort(Comparator.comparingLong(Task::getId));
+        return result;
+    }
+
+    private static Set<String> getDistinctWords(Task task) {
+        Set<String> words = new HashSet<>();
+        for (String word : FuzzySearch.getWords(task)) {
+            words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Returns every string obtainable by deleting at most {@link #MAX_DISTANCE} characters
+     * from the given word, including the word itself.
+     */
+    private static Set<String> getDeletions(String word) {
+        Set<String> deletions = new HashSet<>();
+        deletions.add(word);
+        List<String> frontier = List.of(word);
+        for (int depth = 0; depth < MAX_DISTANCE; depth++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String deletion = current.substring(0, i) + current.substring(i + 1);
+                    if (deletions.add(deletion)) {
+                        next.add(deletion);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return deletions;
+    }
+}
@@ -1,6 +1,10 @@
 package buddy;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 
 /**
  * The FuzzySearch class implements fuzzy search using the Levenshtein Distance algorithm.
@@ -10,6 +14,36 @@ import java.util.List;
  *
  */
 public class FuzzySearch {
+    /** Two reusable rows per thread, so that {@link #withinDistance} does not allocate. */
+    private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[2][32]);
+
+    private static volatile ForkJoinPool parallelPool = createDefaultPool();
+
+    /**
+     * Enables parallel search on the given pool for index lookups with many candidate words, or
+     * disables it when the pool is null.
+     * @param pool the pool to run parallel searches on, or null to search sequentially
+     */
+    public static void setParallelPool(ForkJoinPool pool) {
+        parallelPool = pool;
+    }
+
+    /**
+     * Returns the pool that parallel searches run on.
+     * @return the pool, or null if searches are sequential
+     */
+    static ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    /**
+     * Chooses the pool from {@code -Dbuddy.searchThreads=...}: a pool of its own with that many threads
+     * when it is more than 1, and sequential search when it is not set or is 1 or less.
+     */
+    private static ForkJoinPool createDefaultPool() {
+        int threads = Integer.getInteger("buddy.searchThreads", 1);
+        return threads > 1 ? new ForkJoinPool(threads) : null;
+    }
 
     /**
      * Calculates the Levenshtein distance between two strings.
@@ -39,25 +73,137 @@ public class FuzzySearch {
     }
 
     /**
-     * Fuzzy search for tasks based on a keyword and Levenshtein distance.
+     * Checks whether the Levenshtein distance between two strings is at most {@code k}.
+     *
+     * <p>Only the diagonal band of width {@code 2k + 1} is computed, using two reusable rows,
+     * and the computation stops as soon as every cell in a row exceeds {@code k}. Pairs whose
+     * lengths differ by more than {@code k} are rejected without looking at their characters.</p>
+     *
+     * @param s1 the first string
+     * @param s2 the second string
+     * @param k the largest distance that is accepted
+     * @return true if the strings are within {@code k} edits of each other
+     */
+    public static boolean withinDistance(String s1, String s2, int k) {
+        assert k >= 0 : "Distance threshold should not be negative";
+        int len1 = s1.length();
+        int len2 = s2.length();
+        if (Math.abs(len1 - len2) > k) {
+            return false;
+        }
+        if (len1 == 0 || len2 == 0) {
+            return true;
+        }
+
+        int[][] rows = ROWS.get();
+        if (rows[0].length < len2 + 2) {
+            rows = new int[][] {new int[len2 + 2], new int[len2 + 2]};
+            ROWS.set(rows);
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        int outside = k + 1; // any value above k, used for cells outside the band
+
+        for (int j = 0; j <= Math.min(len2, k); j++) {
+            previous[j] = j;
+        }
+        if (k + 1 <= len2) {
+            previous[k + 1] = outside;
+        }
+
+        for (int i = 1; i <= len1; i++) {
+            int from = Math.max(1, i - k);
+            int to = Math.min(len2, i + k);
+            current[from - 1] = from == 1 ? i : outside;
+            int rowMin = current[from - 1];
+            char c1 = s1.charAt(i - 1);
+
+            for (int j = from; j <= to; j++) {
+                int cost = (c1 == s2.charAt(j - 1)) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < len2) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > k) {
+                return false;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[len2] <= k;
+    }
+
+    /**
+     * Fuzzy search for tasks based on a keyword and Levenshtein distance, by comparing the keyword with
+     * every word of every task. {@link TaskList#findTasks} gives the same result through its index.
      * @param tasks the list of tasks
      * @param keyword the search term
      * @return the tasks that are most similar to the search term
      */
     public static String fuzzySearch(List<Task> tasks, String keyword) {
-        List<Task> foundTasks = tasks.stream()
-                .filter(task -> {
-                    String[] taskWords = task.getDescription().toLowerCase().split("\\s+");
-                    for (String taskWord : taskWords) {
-                        int distance = getLevenshteinDistance(taskWord, keyword.toLowerCase());
-                        if (distance <= 2) {
-                            return true;
-                        }
-                    }
-                    return false;
-                })
-                .toList();
+        String query = keyword.toLowerCase();
+        List<Task> foundTasks = new ArrayList<>();
+        for (Task task : tasks) {
+            if (matches(task, query)) {
+                foundTasks.add(task);
+            }
+        }
+        return formatFoundTasks(foundTasks);
+    }
+
+    /**
+     * Returns the items that pass a test, in their original order. Lists of at least {@code threshold}
+     * items are tested in parallel on the search pool, in chunks of {@code chunkSize}, if there is one.
+     * @param items the items to test
+     * @param predicate the test, which must be safe to run on several threads at once
+     * @param threshold the smallest list that is tested in parallel
+     * @param chunkSize the number of items each parallel subtask tests without splitting further
+     * @return the items that passed
+     */
+    static <T> List<T> filter(List<T> items, Predicate<? super T> predicate, int threshold, int chunkSize) {
+        ForkJoinPool pool = parallelPool;
+        if (pool != null && items.size() >= threshold) {
+            return pool.invoke(new SearchTask<>(items, predicate, chunkSize, 0, items.size()));
+        }
+        List<T> found = new ArrayList<>();
+        for (T item : items) {
+            if (predicate.test(item)) {
+                found.add(item);
+            }
+        }
+        return found;
+    }
+
+    private static boolean matches(Task task, String query) {
+        String[] taskWords = getWords(task);
+        for (String taskWord : taskWords) {
+            if (withinDistance(taskWord, query, FuzzyIndex.MAX_DISTANCE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits a task description into the lowercase words that a keyword is compared against.
+     * @param task the task to split
+     * @return the words of the task description
+     */
+    static String[] getWords(Task task) {
+        return task.getDescription().toLowerCase().split("\\s+");
+    }
 
+    /**
+     * Formats the result of a search for display.
+     * @param foundTasks the tasks that matched the search term
+     * @return the numbered list of found tasks, or a message if there are none
+     */
+    static String formatFoundTasks(List<Task> foundTasks) {
         if (foundTasks.isEmpty()) {
             return "No tasks found matching that keyword.";
         }
@@ -68,4 +214,48 @@ public class FuzzySearch {
         }
         return result.toString();
     }
+
+    /**
+     * Tests a range of items, splitting it in halves until each part is at most the chunk size.
+     * Results are joined left before right, so the matches keep their original order.
+     */
+    private static class SearchTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final Predicate<? super T> predicate;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        SearchTask(List<T> items, Predicate<? super T> predicate, int chunkSize, int from, int to) {
+            this.items = items;
+            this.predicate = predicate;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= chunkSize) {
+                List<T> found = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    T item = items.get(i);
+                    if (predicate.test(item)) {
+                        found.add(item);
+                    }
+                }
+                return found;
+            }
+
+            int middle = (from + to) >>> 1;
+            SearchTask<T> left = new SearchTask<>(items, predicate, chunkSize, from, middle);
+            left.fork();
+            List<T> right = new SearchTask<>(items, predicate, chunkSize, middle, to).compute();
+            List<T> found = left.join();
+            found.addAll(right);
+            return found;
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package buddy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of 1-based task numbers written as numbers and ranges, such as {@code 1,4,9-20}.
+ * The set is kept as sorted, non-overlapping ranges, so a range like {@code 5-900} takes the
+ * same space as a single number.
+ */
+public final class IndexSet {
+    private final int[] starts;
+    private final int[] ends;
+    private final long size;
+
+    private IndexSet(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        long count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            count += ends[i] - starts[i] + 1L;
+        }
+        this.size = count;
+    }
+
+    /**
+     * Parses comma-separated numbers and ranges. Spaces around each part are ignored, overlapping
+     * parts are merged and the order of parts does not matter.
+     *
+     * @param text The text to parse, such as {@code 1,4,9-20}.
+     * @return The set, or null if the text is not a valid set of positive numbers.
+     */
+    public static IndexSet parse(String text) {
+        List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        while (start <= text.length()) {
+            int comma = text.indexOf(',', start);
+            int end = comma < 0 ? text.length() : comma;
+            int[] range = parseRange(text.substring(start, end).trim());
+            if (range == null) {
+                return null;
+            }
+            ranges.add(range);
+            start = end + 1;
+        }
+
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] starts = new int[ranges.size()];
+        int[] ends = new int[ranges.size()];
+        int count = 0;
+        for (int[] range : ranges) {
+            if (count > 0 && range[0] <= ends[count - 1] + 1L) {
+                ends[count - 1] = Math.max(ends[count - 1], range[1]);
+            } else {
+                starts[count] = range[0];
+                ends[count] = range[1];
+                count++;
+            }
+        }
+        return new IndexSet(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * Returns the number of task numbers in the set.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the smallest task number in the set.
+     */
+    public int first() {
+        return starts[0];
+    }
+
+    /**
+     * Returns the largest task number in the set.
+     */
+    public int last() {
+        return ends[ends.length - 1];
+    }
+
+    /**
+     * Returns the task numbers in ascending order. Check {@link #last()} against the list size
+     * first, since a range may be very large.
+     */
+    public int[] toArray() {
+        assert size <= Integer.MAX_VALUE : "Set is too large to list";
+        int[] indexes = new int[(int) size];
+        int count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            for (int index = starts[i]; index <= ends[i]; index++) {
+                indexes[count++] = index;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns the set in its canonical form, e.g. {@code 1,4,9-20}, which {@link #parse} reads back.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(starts[i]);
+            if (ends[i] != starts[i]) {
+                sb.append('-').append(ends[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses {@code n} or {@code a-b} into an inclusive range, or returns null if it is invalid.
+     */
+    private static int[] parseRange(String part) {
+        int dash = part.indexOf('-');
+        int low = parsePositive(dash < 0 ? part : part.substring(0, dash).trim());
+        int high = dash < 0 ? low : parsePositive(part.substring(dash + 1).trim());
+        if (low < 1 || high < low) {
+            return null;
+        }
+        return new int[] {low, high};
+    }
+
+    /**
+     * Parses a positive number made only of digits, or returns -1.
+     */
+    private static int parsePositive(String digits) {
+        if (digits.isEmpty() || digits.length() > 10) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+}
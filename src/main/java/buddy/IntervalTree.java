@@ -0,0 +1,272 @@
+package buddy;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An augmented interval tree over events, used to find clashes and free time without comparing
+ * every pair of events.
+ *
+ * <p>The tree is a treap ordered by start time and then task ID. Each node also stores the latest
+ * end time in its subtree, so a search can skip any subtree that ends before the range of interest.
+ * Adding and removing an event takes O(log n) expected time, and finding the k events that
+ * overlap a range takes O(log n + k).</p>
+ *
+ * <p>Events are treated as half-open ranges, so an event ending at 10:00 does not clash with one
+ * starting at 10:00.</p>
+ */
+public class IntervalTree {
+    private Node root;
+    private int size;
+
+    private static class Node {
+        final Event event;
+        final long start;
+        final long end;
+        final long id;
+        final long priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(Event event) {
+            this.event = event;
+            this.start = toEpochMinute(event.getFrom());
+            this.end = toEpochMinute(event.getTo());
+            this.id = event.getId();
+            this.priority = mix(id);
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, long otherId) {
+            int byStart = Long.compare(start, otherStart);
+            return byStart != 0 ? byStart : Long.compare(id, otherId);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+
+    /**
+     * A pair of events whose times overlap.
+     *
+     * @param first the event that starts first
+     * @param second the event that starts later, or at the same time
+     */
+    public record Clash(Event first, Event second) {
+    }
+
+    /**
+     * Returns the number of events in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an event to the tree.
+     *
+     * @param event the event to add
+     */
+    public void add(Event event) {
+        root = insert(root, new Node(event));
+        size++;
+    }
+
+    /**
+     * Removes an event from the tree.
+     *
+     * @param event the event to remove
+     */
+    public void remove(Event event) {
+        root = delete(root, toEpochMinute(event.getFrom()), event.getId());
+    }
+
+    /**
+     * Returns the events that overlap the given range, in order of start time.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, exclusive
+     * @return the overlapping events
+     */
+    public List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        collect(root, toEpochMinute(from), toEpochMinute(to), result);
+        return result;
+    }
+
+    /**
+     * Returns every pair of overlapping events. Events are visited in order of start time, and each
+     * one is only compared with the events that start before it ends, so this takes O(n + k) time
+     * for k clashes rather than comparing every pair.
+     *
+     * @param limit the most clashes to return
+     * @return the clashes, ordered by the start time of their first event
+     */
+    public List<Clash> clashes(int limit) {
+        List<Node> nodes = new ArrayList<>(size);
+        inOrder(root, nodes);
+        List<Clash> result = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node first = nodes.get(i);
+            for (int j = i + 1; j < nodes.size() && nodes.get(j).start < first.end; j++) {
+                Node second = nodes.get(j);
+                if (second.end <= first.start) {
+                    continue; // Only possible for an event that ends before it starts
+                }
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(new Clash(first.event, second.event));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the free slots within a range: the stretches of time that no event covers.
+     *
+     * @param from the start of the range
+     * @param to the end of the range, exclusive
+     * @return the free slots as pairs of start and end times, in order
+     */
+    public List<LocalDateTime[]> freeSlots(LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime[]> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Event event : overlapping(from, to)) {
+            if (event.getFrom().isAfter(cursor)) {
+                slots.add(new LocalDateTime[] {cursor, event.getFrom()});
+            }
+            if (event.getTo().isAfter(cursor)) {
+                cursor = event.getTo();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new LocalDateTime[] {cursor, to});
+        }
+        return slots;
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (node.compareTo(added.start, added.id) > 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = node.compareTo(start, id);
+        if (comparison > 0) {
+            node.left = delete(node.left, start, id);
+        } else if (comparison < 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every key in {@code left} is smaller than every key in {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    /**
+     * Adds the events in the subtree that overlap {@code [from, to)}, skipping subtrees that
+     * end too early or start too late.
+     */
+    private static void collect(Node node, long from, long to, List<Event> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            result.add(node.event);
+        }
+        collect(node.right, from, to, result);
+    }
+
+    private static void inOrder(Node node, List<Node> result) {
+        while (node != null) {
+            inOrder(node.left, result);
+            result.add(node);
+            node = node.right;
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Derives a well-spread priority from the task ID, so the tree shape is random but repeatable.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
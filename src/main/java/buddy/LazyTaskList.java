@@ -0,0 +1,346 @@
+package buddy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list of the tasks in a text task file that only records where each line starts when it is opened,
+ * and reads and decodes a line into a task the first time that task is read.
+ *
+ * <p>Opening a file costs one streaming pass over its bytes that checks each line is a valid task,
+ * without building any strings or dates, so Buddy can show its first prompt almost as soon as a huge
+ * file has been read. Only the line offsets are kept; a line is read back from the file when its task is
+ * first needed, and the file is closed once every line has been decoded. Tasks can be added, replaced
+ * and removed as in any list; the list only keeps the line each position refers to.</p>
+ *
+ * <p>The file is read through a channel rather than mapped, since a mapping would keep it locked on some
+ * platforms and stop a compaction from replacing it. Buddy never writes a task file in place, so the
+ * channel keeps reading the file as it was opened after a compaction has moved a new one over it.</p>
+ *
+ * <p>Copies made with {@link #copy()} share the decoded tasks, so a task is decoded once and marking it
+ * is seen through every copy. Decoding is synchronized, so copies can be read from other threads.</p>
+ *
+ * <p>Slots in the shared task array are never freed. Copies are dropped without telling the list, so a
+ * slot that this list has replaced or removed may still be read through a copy, and there is no cheap
+ * way to know when none does. A task that is replaced or removed therefore stays reachable, and a line
+ * removed before it was decoded keeps the file open, until the list and all its copies are dropped.
+ * This costs one array slot per addition or replacement made in a session, which is small next to the
+ * lines of a file large enough to load lazily.</p>
+ */
+final class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private final Lines lines;
+    private int[] slots;
+    private int size;
+
+    /**
+     * The lines of a task file and the tasks decoded from them so far, shared by a list and its copies.
+     * Tasks added after loading are given slots after the file's lines.
+     */
+    private static final class Lines {
+        private final FileChannel channel;
+        /** Where each line starts in the file, and where the last one ends. A line runs to its first line break. */
+        private final long[] starts;
+        private final int lineCount;
+        /** The highest ID ever given, as recorded in the file. */
+        private final long lastId;
+        private int undecodedCount;
+        private ByteBuffer lineBuffer = ByteBuffer.allocate(256);
+        private Task[] tasks;
+        private int slotCount;
+
+        Lines(FileChannel channel, long[] starts, int lineCount, long lastId) throws IOException {
+            this.channel = channel;
+            this.starts = starts;
+            this.lineCount = lineCount;
+            this.lastId = lastId;
+            this.undecodedCount = lineCount;
+            this.tasks = new Task[Math.max(lineCount, INITIAL_CAPACITY)];
+            this.slotCount = lineCount;
+            if (lineCount == 0) {
+                channel.close();
+            }
+        }
+
+        synchronized Task get(int slot) {
+            Task task = tasks[slot];
+            if (task == null) {
+                try {
+                    task = decode(slot);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read a task from the task file", e);
+                }
+                tasks[slot] = task;
+            }
+            return task;
+        }
+
+        synchronized int add(Task task) {
+            if (slotCount == tasks.length) {
+                tasks = Arrays.copyOf(tasks, grow(tasks.length));
+            }
+            tasks[slotCount] = task;
+            return slotCount++;
+        }
+
+        /**
+         * Reads a line back from the file and decodes it, closing the file after the last line.
+         * Every line was checked when the file was opened, so a line that no longer decodes means the
+         * file was changed in place underneath Buddy.
+         */
+        private Task decode(int line) throws IOException {
+            int length = (int) (starts[line + 1] - starts[line]);
+            if (lineBuffer.capacity() < length) {
+                lineBuffer = ByteBuffer.allocate(Math.max(length, lineBuffer.capacity() * 2));
+            }
+            lineBuffer.clear().limit(length);
+            while (lineBuffer.hasRemaining()) {
+                if (channel.read(lineBuffer, starts[line] + lineBuffer.position()) < 0) {
+                    throw new IOException("The task file was truncated while it was open");
+                }
+            }
+
+            int newline = indexOfNewline(lineBuffer.array(), 0, length);
+            int end = lineEnd(lineBuffer.array(), 0, newline < 0 ? length : newline);
+            Task task = TaskCodec.decode(lineBuffer, 0, end);
+            if (task == null) {
+                throw new IOException("The task file was changed while it was open");
+            }
+            if (--undecodedCount == 0) {
+                channel.close();
+            }
+            return task;
+        }
+    }
+
+    private LazyTaskList(Lines lines, int[] slots, int size) {
+        this.lines = lines;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    /**
+     * Indexes the lines of a text task file. Each task line must be a valid task that starts with its ID,
+     * and the IDs must increase down the file, so that tasks can be found by ID without decoding them;
+     * this is how Buddy writes its files. A line recording the highest ID ever given is noted and skipped.
+     *
+     * @param path the task file
+     * @return the tasks in the file, or null if a line is malformed, lacks an ID or is out of order,
+     *         in which case it should be loaded in full
+     * @throws IOException if the file cannot be read
+     */
+    static LazyTaskList open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long[] starts;
+        int lineCount;
+        long lastId = 0;
+        try {
+            starts = new long[INITIAL_CAPACITY];
+            lineCount = 0;
+            long previousId = 0;
+            byte[] data = new byte[READ_BUFFER_SIZE];
+            ByteBuffer view = ByteBuffer.wrap(data);
+            long offset = 0; // Where data[0] is in the file
+            int filled = 0;
+            int lineStart = 0;
+            boolean isEndOfFile = false;
+            while (lineStart < filled || !isEndOfFile) {
+                int newline = indexOfNewline(data, lineStart, filled);
+                if (newline < 0 && !isEndOfFile) {
+                    if (lineStart == 0 && filled == data.length) {
+                        data = Arrays.copyOf(data, data.length * 2); // A line longer than the buffer
+                        view = ByteBuffer.wrap(data);
+                    } else {
+                        System.arraycopy(data, lineStart, data, 0, filled - lineStart);
+                        offset += lineStart;
+                        filled -= lineStart;
+                        lineStart = 0;
+                    }
+                    int read = channel.read(ByteBuffer.wrap(data, filled, data.length - filled));
+                    if (read < 0) {
+                        isEndOfFile = true;
+                    } else {
+                        filled += read;
+                    }
+                    continue;
+                }
+
+                int next = newline < 0 ? filled : newline + 1;
+                int end = lineEnd(data, lineStart, next);
+                long recordedLastId = TaskCodec.decodeLastId(view, lineStart, end);
+                if (recordedLastId >= 0) {
+                    lastId = Math.max(lastId, recordedLastId);
+                } else if (!isBlank(data, lineStart, end)) {
+                    long id = readId(data, lineStart, end);
+                    if (id <= previousId || !TaskCodec.isValid(view, lineStart, end)) {
+                        channel.close();
+                        return null;
+                    }
+                    previousId = id;
+                    if (lineCount + 1 >= starts.length) {
+                        starts = Arrays.copyOf(starts, starts.length * 2);
+                    }
+                    starts[lineCount++] = offset + lineStart;
+                    starts[lineCount] = offset + end;
+                }
+                lineStart = next;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        int[] slots = new int[Math.max(lineCount, INITIAL_CAPACITY)];
+        for (int i = 0; i < lineCount; i++) {
+            slots[i] = i;
+        }
+        return new LazyTaskList(new Lines(channel, starts, lineCount, lastId), slots, lineCount);
+    }
+
+    /**
+     * Returns the highest ID ever given to a task as recorded in the file, which can be larger than
+     * the ID of its last task if that task was deleted.
+     *
+     * @return the recorded ID, or 0 if the file does not record one
+     */
+    long getLastId() {
+        return lines.lastId;
+    }
+
+    private static int indexOfNewline(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns where the text of the line between {@code start} and {@code end} ends, before its line break.
+     */
+    private static int lineEnd(byte[] data, int start, int end) {
+        while (end > start && (data[end - 1] == '\n' || data[end - 1] == '\r')) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Reads the ID at the start of a line, which must be followed by a space.
+     *
+     * @return the ID, or 0 if the line does not start with one
+     */
+    private static long readId(byte[] data, int start, int end) {
+        long id = 0;
+        int i = start;
+        while (i < end && data[i] >= '0' && data[i] <= '9' && id < Long.MAX_VALUE / 10) {
+            id = id * 10 + (data[i] - '0');
+            i++;
+        }
+        return i > start && i < end && data[i] == ' ' ? id : 0;
+    }
+
+    private static boolean isBlank(byte[] data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data[i] != ' ' && data[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the list that shares its decoded tasks, without decoding any more of them.
+     *
+     * @return the copy
+     */
+    LazyTaskList copy() {
+        return new LazyTaskList(lines, Arrays.copyOf(slots, size), size);
+    }
+
+    /**
+     * Removes the tasks at the given ascending 1-based positions in one pass, without decoding the tasks
+     * that are kept.
+     *
+     * @param positions the positions to remove
+     */
+    void removePositions(int[] positions) {
+        int next = 0;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (next < positions.length && positions[next] == i + 1) {
+                next++;
+            } else {
+                slots[kept++] = slots[i];
+            }
+        }
+        size = kept;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        return lines.get(slots[index]);
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        if (task != previous) {
+            slots[index] = lines.add(task);
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean add(Task task) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, grow(slots.length));
+        }
+        slots[size++] = lines.add(task);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        System.arraycopy(slots, toIndex, slots, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    private static int grow(int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package buddy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts commands and records how long each phase of a command takes.
+ * Metrics are off unless the JVM is started with {@code -Dbuddy.metrics=true} or the
+ * {@code stats on} command is used. While off, every call returns after a single flag check.
+ *
+ * <p>Phases are timed with {@link #start()} and {@link #lap}: each lap records the time since the
+ * previous one and returns the time to pass to the next.</p>
+ */
+public final class Metrics {
+    /**
+     * The phases of handling a command.
+     */
+    public enum Phase {
+        /** Working out the command and its arguments from the input. */
+        PARSE,
+        /** Changing or querying the task list. */
+        EXECUTE,
+        /** Recording the change with storage, or writing it to disk. */
+        PERSIST
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Map<String, LatencyHistogram[]> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static volatile boolean isEnabled = Boolean.getBoolean("buddy.metrics");
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns whether metrics are being recorded.
+     */
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Turns recording on or off. Metrics recorded so far are kept.
+     *
+     * @param enabled Whether to record metrics.
+     */
+    public static void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /**
+     * Returns the time to measure the first phase from, or 0 when metrics are off.
+     */
+    public static long start() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since {@code since} as the given phase of the given command.
+     *
+     * @param command The command, e.g. {@code "mark"}.
+     * @param phase The phase that has just finished.
+     * @param since The value returned by {@link #start()} or the previous lap.
+     * @return The time to measure the next phase from, or 0 when metrics are off.
+     */
+    public static long lap(String command, Phase phase, long since) {
+        if (!isEnabled || since == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        HISTOGRAMS.computeIfAbsent(command, key -> newHistograms())[phase.ordinal()].record(now - since);
+        return now;
+    }
+
+    /**
+     * Returns the histogram of the given phase of the given command, or null if it never ran.
+     *
+     * @param command The command.
+     * @param phase The phase.
+     */
+    public static LatencyHistogram getHistogram(String command, Phase phase) {
+        LatencyHistogram[] histograms = HISTOGRAMS.get(command);
+        return histograms == null ? null : histograms[phase.ordinal()];
+    }
+
+    /**
+     * Clears every recorded metric.
+     */
+    public static void reset() {
+        HISTOGRAMS.clear();
+    }
+
+    /**
+     * Returns a report of the number of runs and phase latencies of every command, in microseconds.
+     */
+    public static String report() {
+        if (HISTOGRAMS.isEmpty()) {
+            return isEnabled
+                    ? "No commands have been measured yet."
+                    : "Metrics are off. Use 'stats on' or start Buddy with -Dbuddy.metrics=true.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("📈 Command latencies in µs (p50 / p99 / max):\n");
+        for (Map.Entry<String, LatencyHistogram[]> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            LatencyHistogram[] histograms = entry.getValue();
+            long runs = 0;
+            for (LatencyHistogram histogram : histograms) {
+                runs = Math.max(runs, histogram.getCount());
+            }
+            sb.append(entry.getKey()).append(": ").append(runs).append(" runs\n");
+            for (Phase phase : PHASES) {
+                LatencyHistogram histogram = histograms[phase.ordinal()];
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                sb.append("  ").append(phase.name().toLowerCase()).append(": ")
+                        .append(toMicros(histogram.getValueAtPercentile(50))).append(" / ")
+                        .append(toMicros(histogram.getValueAtPercentile(99))).append(" / ")
+                        .append(toMicros(histogram.getMax())).append('\n');
+            }
+        }
+        if (!isEnabled) {
+            sb.append("Metrics are currently off.\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report to a file, replacing it if it exists.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, report());
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private static String toMicros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}
@@ -1,17 +1,71 @@
 package buddy;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles parsing of user input and executing the corresponding commands.
  * This class is responsible for interpreting user commands and delegating the
  * appropriate operations to the TaskList and Storage classes. It supports commands
  * for listing tasks, adding tasks (ToDo, Deadline, Event), marking tasks as done,
- * unmarking tasks, deleting tasks, and finding tasks based on keywords.
+ * unmarking tasks, deleting tasks, finding tasks based on keywords and showing metrics.
+ *
+ * <p>Each command is a {@link Command} registered under its keyword, so the input is split once
+ * and the handler is found with a single lookup. Further commands can be added with {@link #register}.</p>
  */
 public class Parser {
+    private static final Map<String, Command> COMMANDS = new HashMap<>();
+    /** Built-in commands that only read the task list. */
+    private static final Set<String> READ_ONLY_COMMANDS =
+            Set.of("list", "find", "due", "between", "upcoming", "clashes", "free", "stats");
+    /** Built-in commands that read or write a file named by the user, as the keyword and any first argument. */
+    private static final Set<String> LOCAL_FILE_COMMANDS = Set.of("import", "stats dump");
+    private static final int DEFAULT_UPCOMING_COUNT = 5;
+    private static final int DATE_LENGTH = "yyyy-MM-dd".length();
+    private static final String LIST_USAGE_MESSAGE = "Please use: list [page <number>] [--limit <number>]";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final String INVALID_DATE_MESSAGE = "Invalid date format. Please use yyyy-MM-dd or yyyy-MM-dd HHmm.";
+
+    static {
+        register("list", Parser::executeList);
+        register("mark", Parser::executeMark);
+        register("unmark", Parser::executeUnmark);
+        register("delete", Parser::executeDelete);
+        register("todo", Parser::executeTodo);
+        register("deadline", Parser::executeDeadline);
+        register("event", Parser::executeEvent);
+        register("find", Parser::executeFind);
+        register("due", Parser::executeDue);
+        register("between", Parser::executeBetween);
+        register("upcoming", Parser::executeUpcoming);
+        register("clashes", Parser::executeClashes);
+        register("free", Parser::executeFree);
+        register("stats", Parser::executeStats);
+        register("batch", Parser::executeBatch);
+        register("import", Parser::executeImport);
+    }
+
+    /**
+     * Registers a command under a keyword, replacing any command already registered under it.
+     *
+     * @param keyword The first word of the input that runs the command. It is matched case-insensitively.
+     * @param command The command to run.
+     */
+    public static synchronized void register(String keyword, Command command) {
+        assert keyword != null && !keyword.isEmpty() : "Keyword should not be empty.";
+        assert command != null : "Command should not be null.";
+        COMMANDS.put(keyword.toLowerCase(), command);
+    }
 
     /**
      * Parses and executes the given command.
@@ -31,139 +85,557 @@ public class Parser {
         assert taskList != null : "TaskList should not be null.";
         assert storage != null : "Storage should not be null.";
 
-        String command = input.split(" ")[0].toLowerCase();
+        return execute(CommandInput.parse(input, Metrics.start()), taskList, storage);
+    }
 
-        if (command.equals("list")) {
-            return taskList.listTasks();
-        } else if (command.equals("mark")) {
-            int index = parseTaskIndex(input, "mark");
-            assert index > 0 : "Task index should be a positive integer.";
-            String response = taskList.markTaskAsDone(index);
-            storage.save(taskList);
-            return response;
-        } else if (command.equals("unmark")) {
-            int index = parseTaskIndex(input, "unmark");
-            assert index > 0 : "Task index should be a positive integer.";
-            String response = taskList.unmarkTaskAsDone(index);
-            storage.save(taskList);
-            return response;
-        } else if (command.equals("delete")) {
-            int index = parseTaskIndex(input, "delete");
-            assert index > 0 : "Task index should be a positive integer.";
-            String response = taskList.deleteTask(index);
-            storage.save(taskList);
-            return response;
-        } else if (input.isEmpty()) {
-            return Ui.getErrorMessage("Please provide an input.");
-        } else if (command.equals("todo") || command.equals("deadline")
-                || command.equals("event")) {
-            String response = parseTask(taskList, input, storage);
-            return response;
-        } else if (command.equals("find")) {
-            String keyword = input.substring(4).trim();
-            assert keyword != null : "Keyword should not be null.";
-            if (keyword.isEmpty()) {
-                return Ui.getErrorMessage("Please specify a keyword to search for.");
-            } else {
-                return taskList.findTasks(keyword);
-            }
-        }
-        return Ui.getErrorMessage("Sorry, I'm not sure what you mean. Please check your input and try again.");
+    /**
+     * Parses and executes a command like {@link #parseCommand(String, TaskList, Storage)}, but lets
+     * commands with long responses, such as {@code list}, write them to {@code output} as they go.
+     * Anything returned should be written after what the command has streamed.
+     *
+     * @param input    The user input string.
+     * @param taskList The task list to modify based on the command.
+     * @param storage  The storage system to save changes to the task list.
+     * @param output   Where to stream a long response.
+     * @return The rest of the response, which is empty if it was all streamed.
+     * @throws IOException If an error occurs while saving to the storage or writing to {@code output}.
+     */
+    public static String parseCommand(String input, TaskList taskList, Storage storage, Appendable output)
+            throws IOException {
+        assert input != null : "Input should not be null.";
+        assert output != null : "Output should not be null.";
+
+        return execute(CommandInput.parse(input, Metrics.start(), output), taskList, storage);
     }
 
     /**
-     * Parses a task addition command and adds the corresponding task to the task list.
+     * Returns whether the input is a command that only reads the task list. Such commands can run
+     * alongside others, while a change and the record of it in storage must be made together.
+     * Commands added with {@link #register} under new keywords are never treated as read-only.
      *
-     * Supports three types of tasks: ToDo, Deadline, and Event. Each type of task
-     * requires specific formatting in the user input.
+     * @param input The user input string.
+     * @return true if the command does not change the task list.
+     */
+    public static boolean isReadOnly(String input) {
+        return READ_ONLY_COMMANDS.contains(CommandInput.parse(input, 0).getKeyword());
+    }
+
+    /**
+     * Returns whether the input is a command that reads or writes a file named in it, such as
+     * {@code import} or {@code stats dump}. Such commands should only be run for a local user, since
+     * the file is opened with the rights of the Buddy process.
+     *
+     * @param input The user input string.
+     * @return true if the command opens a file named in the input.
+     */
+    public static boolean usesLocalFiles(String input) {
+        CommandInput command = CommandInput.parse(input, 0);
+        CommandInput option = CommandInput.parse(command.getArguments(), 0);
+        return LOCAL_FILE_COMMANDS.contains(command.getKeyword())
+                || LOCAL_FILE_COMMANDS.contains(command.getKeyword() + " " + option.getKeyword());
+    }
+
+    /**
+     * Executes already tokenised input with the command registered under its keyword.
      *
-     * @param taskList The task list to which the new task will be added.
-     * @param input    The user input command specifying the task to be added.
+     * @param input    The tokenised user input.
+     * @param taskList The task list to modify based on the command.
      * @param storage  The storage system to save changes to the task list.
-     * @return A string response confirming the addition of the task or an error message.
+     * @return A string response to be displayed to the user.
      * @throws IOException If an error occurs while saving to the storage.
      */
-    private static String parseTask(TaskList taskList, String input, Storage storage) throws IOException {
-        assert taskList != null : "TaskList should not be null.";
-        assert input != null : "Input should not be null.";
-        assert storage != null : "Storage should not be null.";
+    static String execute(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        if (input.getKeyword().isEmpty()) {
+            return Ui.getErrorMessage("Please provide an input.");
+        }
 
-        input = input.replaceAll("/", "");
-        String command = input.split(" ")[0].toLowerCase();
-        if (command.equals("todo")) {
-            String description = input.substring(4).trim();
-            if (description.isEmpty()) {
-                return "The description of a todo cannot be empty.";
-            } else {
-                ToDo newTask = new ToDo(description);
-                String output = taskList.addTask(newTask);
-                storage.save(taskList);
-                return output;
+        Command command = COMMANDS.get(input.getKeyword());
+        if (command == null) {
+            input.endPhase("unknown", Metrics.Phase.PARSE);
+            return Ui.getErrorMessage("Sorry, I'm not sure what you mean. Please check your input and try again.");
+        }
+        return command.execute(input, taskList, storage);
+    }
+
+    /**
+     * Lists every task, or one page of them given as {@code list page <n>}, {@code list --limit <n>}
+     * or both. A page holds {@link #DEFAULT_PAGE_SIZE} tasks unless a limit is given.
+     */
+    private static String executeList(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        int page = 1;
+        int limit = Integer.MAX_VALUE;
+        boolean hasPage = false;
+        // Each option and its value are split off with CommandInput, which lowercases the option.
+        CommandInput option = CommandInput.parse(input.getArguments(), 0);
+        while (!option.getKeyword().isEmpty()) {
+            CommandInput argument = CommandInput.parse(option.getArguments(), 0);
+            int value = argument.getKeyword().isEmpty() ? -1 : parseTaskIndex(argument.getKeyword());
+            if (value < 1) {
+                return Ui.getErrorMessage(LIST_USAGE_MESSAGE);
             }
-        } else if (command.equals("deadline")) {
-            String[] parts = input.substring(8).split(" by ", 2);
-            if (parts[0].trim().isEmpty() || parts.length < 2 || parts[1].trim().isEmpty()) {
-                return "The description or deadline must be provided.";
+            if (option.getKeyword().equals("page")) {
+                page = value;
+                hasPage = true;
+            } else if (option.getKeyword().equals("--limit")) {
+                limit = value;
             } else {
-                try {
-                    String dateString = parts[1].trim();
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-                    LocalDateTime deadline = LocalDateTime.parse(dateString, formatter);
-                    Deadline newTask = new Deadline(parts[0].trim(), deadline.format(formatter));
-                    String output = taskList.addTask(newTask);
-                    storage.save(taskList);
-                    return output;
-                } catch (Exception e) {
-                    return "Invalid date format. Please use yyyy-MM-dd HHmm.";
-                }
+                return Ui.getErrorMessage(LIST_USAGE_MESSAGE);
             }
-        } else if (command.equals("event")) {
-            String[] parts = input.substring(5).split(" from | to ", 3);
-            if (parts[0].trim().isEmpty() || parts.length < 3
-                    || parts[1].trim().isEmpty() || parts[2].trim().isEmpty()) {
-                return "The description, start time, or end time of an event must be provided.";
-            } else {
-                try {
-                    String startDateString = parts[1].trim();
-                    String endDateString = parts[2].trim();
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-                    LocalDateTime start = LocalDateTime.parse(startDateString, formatter);
-                    LocalDateTime end = LocalDateTime.parse(endDateString, formatter);
-                    if (start.isBefore(end)) {
-                        Event newTask = new Event(parts[0].trim(), start.format(formatter), end.format(formatter));
-                        String output = taskList.addTask(newTask);
-                        storage.save(taskList);
-                        return output;
-                    } else {
-                        return "Error: Start time must be before end time.";
-                    }
-                } catch (Exception e) {
-                    return "Invalid date format. Please use yyyy-MM-dd HHmm.";
-                }
+            option = CommandInput.parse(argument.getArguments(), 0);
+        }
+        if (hasPage && limit == Integer.MAX_VALUE) {
+            limit = DEFAULT_PAGE_SIZE;
+        }
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * limit);
+        input.endPhase(Metrics.Phase.PARSE);
+
+        Appendable out = input.getOutput();
+        String response = "";
+        if (out == null) {
+            response = taskList.listTasks(offset, limit);
+        } else {
+            taskList.writeTasks(offset, limit, out);
+        }
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    /**
+     * Marks one task, or several given as a set such as {@code 1,4,9-20}, which are saved as one change.
+     * A task can also be named by its ID, as in {@code mark #12}.
+     * The same syntax works for {@code unmark} and {@code delete}.
+     */
+    private static String executeMark(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        if (input.getArguments().startsWith("#")) {
+            long id = parseTaskId(input.getArguments());
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.markTaskAsDoneById(id);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordMarkById(id, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        IndexSet indexes = IndexSet.parse(input.getArguments());
+        if (indexes != null && indexes.size() > 1) {
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.markTasksAsDone(indexes);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordMark(indexes, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        int index = indexes != null ? indexes.first() : parseTaskIndex(input.getArguments());
+        input.endPhase(Metrics.Phase.PARSE);
+        long version = taskList.getVersion();
+        String response = taskList.markTaskAsDone(index);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        if (taskList.getVersion() != version) {
+            storage.recordMark(index, taskList);
+        }
+        input.endPhase(Metrics.Phase.PERSIST);
+        return response;
+    }
+
+    private static String executeUnmark(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        if (input.getArguments().startsWith("#")) {
+            long id = parseTaskId(input.getArguments());
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.unmarkTaskAsDoneById(id);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordUnmarkById(id, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        IndexSet indexes = IndexSet.parse(input.getArguments());
+        if (indexes != null && indexes.size() > 1) {
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.unmarkTasksAsDone(indexes);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordUnmark(indexes, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        int index = indexes != null ? indexes.first() : parseTaskIndex(input.getArguments());
+        input.endPhase(Metrics.Phase.PARSE);
+        long version = taskList.getVersion();
+        String response = taskList.unmarkTaskAsDone(index);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        if (taskList.getVersion() != version) {
+            storage.recordUnmark(index, taskList);
+        }
+        input.endPhase(Metrics.Phase.PERSIST);
+        return response;
+    }
+
+    private static String executeDelete(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        if (input.getArguments().startsWith("#")) {
+            long id = parseTaskId(input.getArguments());
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.deleteTaskById(id);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordDeleteById(id, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        IndexSet indexes = IndexSet.parse(input.getArguments());
+        if (indexes != null && indexes.size() > 1) {
+            input.endPhase(Metrics.Phase.PARSE);
+            long version = taskList.getVersion();
+            String response = taskList.deleteTasks(indexes);
+            input.endPhase(Metrics.Phase.EXECUTE);
+            if (taskList.getVersion() != version) {
+                storage.recordDelete(indexes, taskList);
+            }
+            input.endPhase(Metrics.Phase.PERSIST);
+            return response;
+        }
+
+        int index = indexes != null ? indexes.first() : parseTaskIndex(input.getArguments());
+        input.endPhase(Metrics.Phase.PARSE);
+        long version = taskList.getVersion();
+        String response = taskList.deleteTask(index);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        if (taskList.getVersion() != version) {
+            storage.recordDelete(index, taskList);
+        }
+        input.endPhase(Metrics.Phase.PERSIST);
+        return response;
+    }
+
+    private static String executeFind(CommandInput input, TaskList taskList, Storage storage) {
+        String keyword = input.getArguments();
+        if (keyword.isEmpty()) {
+            return Ui.getErrorMessage("Please specify a keyword to search for.");
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findTasks(keyword);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    /**
+     * Lists the deadlines and events before a time, given as {@code due before <date>}.
+     */
+    private static String executeDue(CommandInput input, TaskList taskList, Storage storage) {
+        String arguments = input.getArguments();
+        if (!arguments.startsWith("before ")) {
+            return Ui.getErrorMessage("Please use: due before <yyyy-MM-dd [HHmm]>");
+        }
+        LocalDateTime time = parseDate(arguments.substring(7).trim(), false);
+        if (time == null) {
+            return Ui.getErrorMessage(INVALID_DATE_MESSAGE);
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findDueBefore(time);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    /**
+     * Lists the deadlines and events in a time range, given as {@code between <date> and <date>}.
+     * A date without a time covers the whole day.
+     */
+    private static String executeBetween(CommandInput input, TaskList taskList, Storage storage) {
+        String arguments = input.getArguments();
+        int and = arguments.indexOf(" and ");
+        if (and < 0) {
+            return Ui.getErrorMessage("Please use: between <yyyy-MM-dd [HHmm]> and <yyyy-MM-dd [HHmm]>");
+        }
+        LocalDateTime from = parseDate(arguments.substring(0, and).trim(), false);
+        LocalDateTime to = parseDate(arguments.substring(and + 5).trim(), true);
+        if (from == null || to == null) {
+            return Ui.getErrorMessage(INVALID_DATE_MESSAGE);
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findBetween(from, to);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    /**
+     * Lists the next deadlines and events from now, given as {@code upcoming [count]}.
+     */
+    private static String executeUpcoming(CommandInput input, TaskList taskList, Storage storage) {
+        int count = DEFAULT_UPCOMING_COUNT;
+        if (!input.getArguments().isEmpty()) {
+            count = parseTaskIndex(input.getArguments());
+            if (count < 1) {
+                return Ui.getErrorMessage("Please use: upcoming <number of tasks>");
             }
         }
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findUpcoming(LocalDateTime.now(), count);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    private static String executeClashes(CommandInput input, TaskList taskList, Storage storage) {
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findClashes();
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    /**
+     * Lists the free time on a day, given as {@code free <yyyy-MM-dd>}.
+     */
+    private static String executeFree(CommandInput input, TaskList taskList, Storage storage) {
+        String arguments = input.getArguments();
+        LocalDateTime day = arguments.length() == DATE_LENGTH ? parseDate(arguments, false) : null;
+        if (day == null) {
+            return Ui.getErrorMessage("Please use: free <yyyy-MM-dd>");
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        String response = taskList.findFreeSlots(day.toLocalDate());
+        input.endPhase(Metrics.Phase.EXECUTE);
+        return response;
+    }
+
+    private static String executeTodo(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        String description = removeSlashes(input.getArguments()).trim();
+        if (description.isEmpty()) {
+            return "The description of a todo cannot be empty.";
+        }
+        return addTask(input, new ToDo(description), taskList, storage);
+    }
+
+    /**
+     * Adds a deadline given as {@code <description> /by <yyyy-MM-dd HHmm>}.
+     * Slashes are ignored, so {@code by} alone also separates the description from the date.
+     */
+    private static String executeDeadline(CommandInput input, TaskList taskList, Storage storage)
+            throws IOException {
+        String arguments = removeSlashes(input.getArguments());
+        int by = arguments.indexOf(" by ");
+        String description = by < 0 ? arguments.trim() : arguments.substring(0, by).trim();
+        String dateString = by < 0 ? "" : arguments.substring(by + 4).trim();
+        if (description.isEmpty() || dateString.isEmpty()) {
+            return "The description or deadline must be provided.";
+        }
 
-        return "Unknown command. Please try again.";
+        LocalDateTime deadline;
+        try {
+            deadline = TaskCodec.parseTimestamp(dateString);
+        } catch (Exception e) {
+            return "Invalid date format. Please use yyyy-MM-dd HHmm.";
+        }
+        return addTask(input, new Deadline(description, deadline), taskList, storage);
+    }
+
+    /**
+     * Adds an event given as {@code <description> /from <yyyy-MM-dd HHmm> /to <yyyy-MM-dd HHmm>}.
+     * Slashes are ignored, and the input is split at the first two of {@code from} and {@code to}.
+     */
+    private static String executeEvent(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        String arguments = removeSlashes(input.getArguments());
+        int first = findEventDelimiter(arguments, 0);
+        int second = first < 0 ? -1 : findEventDelimiter(arguments, afterDelimiter(arguments, first));
+        if (second < 0) {
+            return "The description, start time, or end time of an event must be provided.";
+        }
+        String description = arguments.substring(0, first).trim();
+        String startDateString = arguments.substring(afterDelimiter(arguments, first), second).trim();
+        String endDateString = arguments.substring(afterDelimiter(arguments, second)).trim();
+        if (description.isEmpty() || startDateString.isEmpty() || endDateString.isEmpty()) {
+            return "The description, start time, or end time of an event must be provided.";
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = TaskCodec.parseTimestamp(startDateString);
+            to = TaskCodec.parseTimestamp(endDateString);
+        } catch (Exception e) {
+            return "Invalid date format. Please use yyyy-MM-dd HHmm.";
+        }
+        if (!from.isBefore(to)) {
+            return "Error: Start time must be before end time.";
+        }
+        return addTask(input, new Event(description, from, to), taskList, storage);
     }
 
     /**
-     * Parses the task index from a command input string.
+     * Runs several task commands separated by ';' and saves their changes once.
+     */
+    private static String executeBatch(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        List<String> commands = Batch.split(input.getArguments());
+        if (commands.isEmpty()) {
+            return Ui.getErrorMessage("Please provide commands separated by ';'.");
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        return runBatch(input, commands, taskList, storage);
+    }
+
+    /**
+     * Runs the task commands in a file, one per line, and saves their changes once.
+     * The file is streamed, so it is never held in memory as a whole.
+     */
+    private static String executeImport(CommandInput input, TaskList taskList, Storage storage)
+            throws IOException {
+        String file = input.getArguments();
+        if (file.isEmpty()) {
+            return Ui.getErrorMessage("Please specify a file to import.");
+        }
+        input.endPhase(Metrics.Phase.PARSE);
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            return runBatch(input, () -> reader.lines().iterator(), taskList, storage);
+        } catch (NoSuchFileException e) {
+            return Ui.getErrorMessage("Cannot find the file " + file + ".");
+        }
+    }
+
+    private static String runBatch(CommandInput input, Iterable<String> commands, TaskList taskList,
+            Storage storage) throws IOException {
+        String summary;
+        storage.beginBatch();
+        try {
+            summary = Batch.run(commands, taskList, storage);
+            input.endPhase(Metrics.Phase.EXECUTE);
+        } finally {
+            storage.endBatch();
+        }
+        input.endPhase(Metrics.Phase.PERSIST);
+        return summary;
+    }
+
+    /**
+     * Handles the {@code stats} command: shows the metrics report, turns recording on or off,
+     * clears the metrics or writes the report to a file.
+     * Its arguments are empty, "on", "off", "reset" or "dump <file>".
+     */
+    private static String executeStats(CommandInput input, TaskList taskList, Storage storage) throws IOException {
+        String argument = input.getArguments();
+        int space = argument.indexOf(' ');
+        String option = (space < 0 ? argument : argument.substring(0, space)).toLowerCase();
+        if (option.isEmpty()) {
+            return Metrics.report();
+        } else if (option.equals("on") || option.equals("off")) {
+            Metrics.setEnabled(option.equals("on"));
+            return "Metrics are now " + option + ".";
+        } else if (option.equals("reset")) {
+            Metrics.reset();
+            return "Metrics have been cleared.";
+        } else if (option.equals("dump")) {
+            String file = space < 0 ? "" : argument.substring(space + 1).trim();
+            if (file.isEmpty()) {
+                return Ui.getErrorMessage("Please specify a file to write the metrics to.");
+            }
+            Metrics.dump(Paths.get(file));
+            return "Metrics written to " + file + ".";
+        }
+        return Ui.getErrorMessage("Usage: stats [on | off | reset | dump <file>]");
+    }
+
+    /**
+     * Adds a parsed task to the task list and records the addition with storage.
      *
-     * This method is used to extract the task index for commands like "mark",
-     * "unmark", or "delete". If the input is invalid, an error message is displayed.
+     * @param input    The command that created the task, for metrics.
+     * @param newTask  The task to add.
+     * @param taskList The task list to add the task to.
+     * @param storage  The storage system to save changes to the task list.
+     * @return A string response confirming the addition of the task.
+     * @throws IOException If an error occurs while saving to the storage.
+     */
+    private static String addTask(CommandInput input, Task newTask, TaskList taskList, Storage storage)
+            throws IOException {
+        input.endPhase(Metrics.Phase.PARSE);
+        String output = taskList.addTask(newTask);
+        input.endPhase(Metrics.Phase.EXECUTE);
+        storage.recordAdd(newTask, taskList);
+        input.endPhase(Metrics.Phase.PERSIST);
+        return output;
+    }
+
+    /**
+     * Parses the task index given as the argument of commands like "mark", "unmark", or "delete".
      *
-     * @param input   The full command string entered by the user.
-     * @param command The specific command (e.g., "mark", "delete").
+     * @param arguments The text after the command keyword.
      * @return The parsed task index, or -1 if the input is invalid.
      */
-    private static int parseTaskIndex(String input, String command) {
-        assert input != null : "Input should not be null.";
-        assert command != null : "Command should not be null.";
+    private static int parseTaskIndex(String arguments) {
+        assert arguments != null : "Arguments should not be null.";
         try {
-            return Integer.parseInt(input.substring(command.length()).trim());
+            return Integer.parseInt(arguments);
         } catch (NumberFormatException e) {
             Ui.getErrorMessage("Invalid task number.");
             return -1;
         }
     }
+
+    /**
+     * Parses a task ID written as {@code #12}.
+     *
+     * @param arguments The text after the command keyword, starting with '#'.
+     * @return The ID, or -1 if the input is invalid.
+     */
+    private static long parseTaskId(String arguments) {
+        try {
+            return Long.parseLong(arguments.substring(1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a time given as {@code yyyy-MM-dd HHmm}, or a date given as {@code yyyy-MM-dd}, which
+     * means the start of the day, or the end of it if {@code isEndOfDay} is set.
+     *
+     * @return The time, or null if the text is not a valid date.
+     */
+    private static LocalDateTime parseDate(String text, boolean isEndOfDay) {
+        try {
+            if (text.length() == DATE_LENGTH) {
+                return TaskCodec.parseTimestamp(text + (isEndOfDay ? " 2359" : " 0000"));
+            }
+            return TaskCodec.parseTimestamp(text);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the text with every '/' removed, without compiling a regular expression.
+     */
+    private static String removeSlashes(String text) {
+        return text.indexOf('/') < 0 ? text : text.replace("/", "");
+    }
+
+    /**
+     * Returns the index of the first " from " or " to " at or after {@code from}, or -1 if there is none.
+     */
+    private static int findEventDelimiter(String text, int from) {
+        int fromIndex = text.indexOf(" from ", from);
+        int toIndex = text.indexOf(" to ", from);
+        if (fromIndex < 0) {
+            return toIndex;
+        }
+        return toIndex < 0 ? fromIndex : Math.min(fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the index just after the " from " or " to " delimiter that starts at {@code index}.
+     */
+    private static int afterDelimiter(String text, int index) {
+        return index + (text.startsWith(" from ", index) ? " from ".length() : " to ".length());
+    }
 }
@@ -0,0 +1,141 @@
+package buddy;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a save on a background thread a short while after changes are reported, so that a burst
+ * of changes is written once and the thread reporting them never waits for the disk.
+ * Pending changes are also written when the JVM shuts down, unless the scheduler has been closed.
+ * A background save that fails is held until it is collected with {@link #takeError()} or rethrown
+ * by {@link #flush()}.
+ */
+public class SaveScheduler {
+    /** The default time between the first unsaved change and the write, in milliseconds. */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * Writes whatever changes are waiting to be saved.
+     */
+    public interface Saver {
+        /**
+         * Writes the pending changes.
+         *
+         * @throws IOException If an error occurs while writing.
+         */
+        void save() throws IOException;
+    }
+
+    private final Saver saver;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+    private final Thread shutdownHook;
+    private ScheduledFuture<?> scheduledSave;
+    private IOException lastError;
+
+    /**
+     * Constructs a SaveScheduler that runs the given saver after each burst of changes.
+     *
+     * @param saver The action that writes pending changes.
+     * @param debounceMillis How long to wait after the first change before saving, in milliseconds.
+     */
+    public SaveScheduler(Saver saver, long debounceMillis) {
+        assert saver != null : "Saver should not be null";
+        assert debounceMillis >= 0 : "Debounce window should not be negative";
+        this.saver = saver;
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "buddy-save-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutdownHook = new Thread(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Error saving tasks on exit: " + e.getMessage());
+            }
+        }, "buddy-save-on-exit");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Reports that there are unsaved changes. A save is scheduled unless one is already pending.
+     */
+    public synchronized void markDirty() {
+        if (scheduledSave == null) {
+            scheduledSave = executor.schedule(this::runScheduledSave, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Saves pending changes on the calling thread instead of waiting for the scheduled save.
+     *
+     * @throws IOException If the save fails, or if an earlier background save failed.
+     */
+    public void flush() throws IOException {
+        synchronized (this) {
+            if (scheduledSave != null) {
+                scheduledSave.cancel(false);
+                scheduledSave = null;
+            }
+        }
+        saver.save();
+
+        IOException error;
+        synchronized (this) {
+            error = lastError;
+            lastError = null;
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Returns the error from the last background save that failed, if it has not been reported yet,
+     * so that it can be shown to the user with the next response.
+     *
+     * @return The error, or null if every background save since the last call has succeeded.
+     */
+    public synchronized IOException takeError() {
+        IOException error = lastError;
+        lastError = null;
+        return error;
+    }
+
+    /**
+     * Saves pending changes, then stops the background thread and removes the save on exit.
+     * Changes reported after this are no longer saved in the background.
+     *
+     * @throws IOException If the save fails, or if an earlier background save failed.
+     */
+    public void close() throws IOException {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down, and the hook may be what is closing us.
+        }
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void runScheduledSave() {
+        synchronized (this) {
+            scheduledSave = null;
+        }
+        try {
+            saver.save();
+        } catch (IOException e) {
+            synchronized (this) {
+                lastError = e;
+            }
+        }
+    }
+}
@@ -1,23 +1,102 @@
 package buddy;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
  * Handles loading and saving tasks to a file.
  * This class provides persistent storage for tasks by reading from and writing to a specified class.
+ *
+ * <p>In journal mode, each mutation is appended as a single record to a journal file next to the
+ * task file instead of rewriting every task. The journal is replayed on {@link #load()} and is
+ * folded back into the task file by a background compaction once it grows past a threshold.</p>
+ *
+ * <p>With background saves enabled, recorded changes are only queued and a {@link SaveScheduler}
+ * writes them shortly afterwards, so a burst of changes costs a single write. Callers that share
+ * a TaskList between threads must change it and record the change while holding the TaskList's
+ * lock, so that every write sees a consistent view of the list and of the queued records.</p>
+ *
+ * <p>The task file is never rewritten in place: each snapshot is written to a sibling temporary
+ * file, forced to disk according to the configured {@link Durability}, and then atomically moved
+ * over the task file.</p>
+ *
+ * <p>A task file whose name ends in {@value BinaryTaskFile#EXTENSION} is stored in the compact
+ * binary format of {@link BinaryTaskFile}; any other file uses the pipe-delimited text format.</p>
+ *
+ * <p>Each snapshot records the highest ID ever given to a task when the task holding it has been
+ * deleted, and every journaled addition carries its task's ID, so {@link #getLastId()} lets a
+ * TaskList carry on numbering after a restart without giving a deleted task's ID to a new one.</p>
  */
 public class Storage {
+    /** The longest time journal writes go without being forced to disk under {@link Durability#GROUP_COMMIT}. */
+    public static final long GROUP_COMMIT_MILLIS = 100;
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int TAIL_READ_SIZE = 4096;
+
     private final Path filePath;
+    private final Path journalPath;
+    private final Path rotatedJournalPath;
+    private final Path compactedPath;
+    private final Path savingPath;
+    private final boolean isJournaled;
+    private final boolean isBinary;
+    private final int compactionThreshold;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+    private int journalLength;
+
+    /** Serialises writes to the task file and journal. Acquired after the TaskList's lock. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object pendingLock = new Object();
+    private List<String> pendingEntries = new ArrayList<>();
+    private TaskList pendingTaskList;
+    private int batchDepth;
+    private SaveScheduler saveScheduler;
+    private volatile Durability durability = Durability.NONE;
+    private boolean isLazy;
+    /** The highest ID given to any task, including deleted ones, as of the last load. */
+    private long lastId;
+    private long lastJournalForceNanos;
+    private boolean hasUnforcedJournal;
+    /** Forces held-back journal writes {@link #GROUP_COMMIT_MILLIS} after the first of them. */
+    private SaveScheduler journalForcer;
+    /**
+     * Set when a write failed, so the file and journal may lack changes the TaskList has. The next
+     * flush then writes a full snapshot instead of appending to the journal. Guarded by writeLock.
+     */
+    private boolean isOutOfSync;
 
     /**
      * Constructs a Storage instance with the specified file path.
@@ -25,39 +104,136 @@ public class Storage {
      * @param filePath  The path to the file where tasks are stored.
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a Storage instance with the specified file path and persistence mode.
+     *
+     * @param filePath  The path to the file where tasks are stored.
+     * @param isJournaled  Whether mutations are appended to a journal instead of rewriting the file.
+     */
+    public Storage(String filePath, boolean isJournaled) {
+        this(filePath, isJournaled, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructs a Storage instance with a custom journal compaction threshold.
+     *
+     * @param filePath  The path to the file where tasks are stored.
+     * @param isJournaled  Whether mutations are appended to a journal instead of rewriting the file.
+     * @param compactionThreshold  The number of journal records that triggers a compaction.
+     */
+    Storage(String filePath, boolean isJournaled, int compactionThreshold) {
         assert filePath != null && !filePath.isEmpty() : "File path must not be null or empty.";
+        assert compactionThreshold > 0 : "Compaction threshold must be positive.";
         this.filePath = Paths.get(filePath);
+        this.journalPath = Paths.get(filePath + ".journal");
+        this.rotatedJournalPath = Paths.get(filePath + ".journal.old");
+        this.compactedPath = Paths.get(filePath + ".tmp");
+        this.savingPath = Paths.get(filePath + ".saving");
+        this.isJournaled = isJournaled;
+        this.isBinary = filePath.endsWith(BinaryTaskFile.EXTENSION);
+        this.compactionThreshold = compactionThreshold;
     }
 
     /**
      * Loads tasks from the file.
      * If the file does not exist, it creates a new file and returns an empty list.
+     * In journal mode, any journal records written since the last compaction are replayed on top.
+     * With {@link #setLazyLoading lazy loading}, a text file is only indexed by line, and each task
+     * is decoded when it is first read.
      *
      * @return  A list of tasks loaded from the file.
      * @throws IOException  If an error occurs while reading the file.
      */
     public List<Task> load() throws IOException {
         assert filePath != null : "File path must not be null.";
+        if (isJournaled) {
+            recoverCompaction();
+        }
+        Files.deleteIfExists(savingPath); // Left behind by a save that never completed
+
+        List<Task> tasks = null;
+        lastId = 0;
         if (!Files.exists(filePath)) {
-            Files.createDirectories(filePath.getParent()); // Ensure the directory exists
+            if (filePath.getParent() != null) {
+                Files.createDirectories(filePath.getParent()); // Ensure the directory exists
+            }
             Files.createFile(filePath); // Create an empty file if it doesn't exist
-            return new ArrayList<>();
+        } else if (isLazy && !isBinary) {
+            LazyTaskList lazyTasks = LazyTaskList.open(filePath);
+            if (lazyTasks != null) {
+                tasks = lazyTasks;
+                lastId = lazyTasks.getLastId();
+            }
         }
 
-        List<String> lines = Files.readAllLines(filePath);
-        assert lines != null : "Lines read from file should not be null.";
-        List<Task> tasks = new ArrayList<>();
-        for (String line : lines) {
-            Task task = fromFileFormat(line);
-            if (task != null) {
-                tasks.add(task);
+        if (tasks == null) {
+            tasks = new ArrayList<>();
+            try (TaskReader reader = openReader()) {
+                reader.forEachRemaining(tasks::add);
+                lastId = reader.getLastId();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
+            TaskList.assignMissingIds(tasks); // Files written before tasks had IDs
+        }
+        if (!tasks.isEmpty()) {
+            lastId = Math.max(lastId, tasks.get(tasks.size() - 1).getId());
+        }
+        if (isJournaled) {
+            replay(rotatedJournalPath, tasks);
+            journalLength = replay(journalPath, tasks);
         }
         return tasks;
     }
 
+    /**
+     * Returns the highest ID given to any task as of the last {@link #load()}, including tasks that
+     * have since been deleted. A TaskList built from the loaded tasks should carry on numbering from it.
+     *
+     * @return  The highest ID, or 0 if no task has ever been given one.
+     */
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Streams the tasks in the file one at a time, without holding them all in memory.
+     * The stream reads the task file as last written, so in journal mode it does not include
+     * mutations that are still in the journal. The stream must be closed to release the file.
+     *
+     * @return  A stream of the tasks in the file, in file order.
+     * @throws IOException  If the file cannot be opened.
+     */
+    public Stream<Task> stream() throws IOException {
+        if (!Files.exists(filePath)) {
+            return Stream.empty();
+        }
+        TaskReader reader = openReader();
+        long[] previousId = new long[1];
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .peek(task -> { // Numbered as TaskList.assignMissingIds would
+                    if (task.getId() <= previousId[0]) {
+                        task.setId(previousId[0] + 1);
+                    }
+                    previousId[0] = task.getId();
+                })
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
     /**
      * Saves the current list of tasks to the file.
+     * In journal mode, the journal is discarded once the full snapshot has been written.
+     * Changes still waiting for a background save are covered by the snapshot and dropped.
      *
      * @param taskList  The TaskList containing tasks to be saved.
      * @throws IOException  If an error occurs while writing to the file.
@@ -66,50 +242,770 @@ public class Storage {
         assert taskList != null : "TaskList must not be null.";
         assert taskList.getTasks() != null : "TaskList.getTasks() must not return null.";
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toString()))) {
-            for (Task task : taskList.getTasks()) {
-                writer.write(task.toFileFormat());
-                writer.newLine();
+        List<Task> snapshot;
+        long snapshotLastId;
+        synchronized (taskList) {
+            writeLock.lock();
+            synchronized (pendingLock) {
+                pendingEntries = new ArrayList<>();
+                pendingTaskList = null;
             }
+            snapshot = taskList.snapshot();
+            snapshotLastId = taskList.getLastId();
         }
+
+        long start = Metrics.start();
+        try {
+            if (isJournaled) {
+                awaitCompaction();
+                rotateJournal();
+                compact(snapshot, snapshotLastId);
+            } else {
+                replaceFile(snapshot, snapshotLastId);
+            }
+            isOutOfSync = false;
+        } catch (IOException | RuntimeException e) {
+            markOutOfSync(taskList);
+            throw e;
+        } finally {
+            writeLock.unlock();
+            Metrics.lap("(save)", Metrics.Phase.PERSIST, start);
+        }
+    }
+
+    /**
+     * Sets whether {@link #load()} decodes tasks only when they are first read. This only applies to
+     * text files whose lines all start with increasing task IDs, as saved files do; other files, and
+     * binary files, are still loaded in full. The default is to load in full.
+     *
+     * @param isLazy  Whether to load lazily.
+     */
+    public void setLazyLoading(boolean isLazy) {
+        this.isLazy = isLazy;
+    }
+
+    /**
+     * Sets how hard saves work to survive a crash or power loss. The default is {@link Durability#NONE}.
+     *
+     * @param durability  The durability level to use for subsequent writes.
+     */
+    public void setDurability(Durability durability) {
+        assert durability != null : "Durability must not be null.";
+        this.durability = durability;
+    }
+
+    /**
+     * Makes recorded changes be written by a background thread instead of by the caller.
+     * Changes recorded within the debounce window of the first one are written together.
+     *
+     * @param debounceMillis  How long to wait after a change before writing, in milliseconds.
+     */
+    public void enableBackgroundSaves(long debounceMillis) {
+        assert saveScheduler == null : "Background saves should only be enabled once.";
+        saveScheduler = new SaveScheduler(this::flushPending, debounceMillis);
+    }
+
+    /**
+     * Returns the error from a background save that failed since the last call, so that it can be
+     * reported with the next response instead of only when Buddy exits.
+     *
+     * @return The error, or null if there is none or background saves are off.
+     */
+    public IOException takeBackgroundSaveError() {
+        IOException error = saveScheduler == null ? null : saveScheduler.takeError();
+        synchronized (pendingLock) {
+            if (error == null && journalForcer != null) {
+                error = journalForcer.takeError();
+            }
+        }
+        return error;
     }
 
     /**
-     * Converts a line from file format to the corresponding Task object.
+     * Writes every recorded change that is still waiting for a background save.
      *
-     * @param line  A string representing a task in file storage format.
-     * @return A Task object corresponding to the given line, or null if the format is invalid.
+     * @throws IOException  If an error occurs while writing, including one from an earlier background save.
      */
-    @SuppressWarnings("checkstyle:Regexp")
-    private static Task fromFileFormat(String line) {
-        String[] parts = line.split(" \\| ");
-        if (parts.length < 3) {
-            return null;
+    public void flush() throws IOException {
+        if (saveScheduler != null) {
+            saveScheduler.flush();
+        } else {
+            flushPending();
         }
 
-        String type = parts[0];
-        boolean isDone = parts[1].equals("1");
-        String description = parts[2];
+        forceHeldBackJournal();
+    }
 
-        switch (type) {
-        case "T":
-            return new ToDo(description, isDone);
-        case "D":
-            if (parts.length < 4) {
-                return null;
+    /**
+     * Forces journal writes held back by group commit to disk, if there are any.
+     */
+    private void forceHeldBackJournal() throws IOException {
+        writeLock.lock();
+        try {
+            if (hasUnforcedJournal) {
+                forceJournal();
             }
-            String by = parts[3];
-            return new Deadline(description, by, isDone);
-        case "E":
-            if (parts.length < 5) {
-                return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending change and waits for any compaction, then stops the background threads
+     * this storage started. The storage should not be used afterwards.
+     *
+     * @throws IOException  If an error occurs while writing, including one from an earlier background save.
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+            awaitCompaction();
+        } finally {
+            try {
+                if (saveScheduler != null) {
+                    saveScheduler.close();
+                }
+            } finally {
+                stopJournalThreads();
             }
-            String from = parts[3];
-            String to = parts[4];
-            return new Event(description, from, to, isDone);
+        }
+    }
+
+    private void stopJournalThreads() throws IOException {
+        SaveScheduler forcer;
+        synchronized (pendingLock) {
+            forcer = journalForcer;
+            journalForcer = null;
+        }
+        writeLock.lock();
+        try {
+            if (compactor != null) {
+                compactor.shutdown();
+                compactor = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (forcer != null) {
+            forcer.close();
+        }
+    }
+
+    /**
+     * Converts a task file to another file, choosing each file's format by its extension.
+     * Journal records pending for the source file are applied before it is converted.
+     *
+     * @param sourcePath  The path of the existing task file.
+     * @param targetPath  The path of the file to write.
+     * @return  The number of tasks written.
+     * @throws IOException  If there is no source file or journal, or an error occurs while reading or
+     *                      writing either file.
+     */
+    public static int migrate(String sourcePath, String targetPath) throws IOException {
+        Storage source = new Storage(sourcePath, true);
+        if (!Files.exists(source.filePath) && !Files.exists(source.journalPath)
+                && !Files.exists(source.rotatedJournalPath)) {
+            throw new NoSuchFileException(sourcePath, null, "No task file to migrate");
+        }
+        List<Task> tasks = source.load();
+        Path target = Paths.get(targetPath);
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        new Storage(targetPath).replaceFile(tasks, source.getLastId());
+        return tasks.size();
+    }
+
+    /**
+     * Persists the addition of a task.
+     *
+     * @param task  The task that was added.
+     * @param taskList  The TaskList after the addition.
+     * @throws IOException  If an error occurs while writing to the file.
+     */
+    public void recordAdd(Task task, TaskList taskList) throws IOException {
+        record("ADD " + task.toFileFormat(), taskList);
+    }
+
+    /**
+     * Persists a task being marked as done.
+     *
+     * @param index  The 1-based index of the task that was marked.
+     * @param taskList  The TaskList after the change.
+     * @throws IOException  If an error occurs while writing to the file.
+     */
+    public void recordMark(int index, TaskList taskList) throws IOException {
+        record("MARK " + index, taskList);
+    }
+
+    /**
+     * Persists a task being marked as not done.
+     *
+     * @param index  The 1-based index of the task that was unmarked.
+     * @param taskList  The TaskList after the change.
+     * @throws IOException  If an error occurs while writing to the file.
+     */
+    public void recordUnmark(int index, TaskList taskList) throws IOException {
+        record("UNMARK " + index, taskList);
+    }
+
+    /**
+     * Persists the deletion of a task.
+     *
+     * @param index  The 1-based index the deleted task had before the deletion.
+     * @param taskList  The TaskList after the deletion.
+     * @throws IOException  If an error occurs while writing to the file.
+     */
+    public void recordDelete(int index, TaskList taskList) throws IOException {
+        record("DELETE " + index, taskList);
+    }
+
+    /**
+     * Records that every task in the set was marked as done, as a single journal record.
+     *
+     * @param indexes  The 1-based task numbers.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordMark(IndexSet indexes, TaskList taskList) throws IOException {
+        record("MARK " + indexes, taskList);
+    }
+
+    /**
+     * Records that every task in the set was unmarked, as a single journal record.
+     *
+     * @param indexes  The 1-based task numbers.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordUnmark(IndexSet indexes, TaskList taskList) throws IOException {
+        record("UNMARK " + indexes, taskList);
+    }
+
+    /**
+     * Records that every task in the set was deleted, as a single journal record.
+     *
+     * @param indexes  The 1-based task numbers, as they were before the deletion.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordDelete(IndexSet indexes, TaskList taskList) throws IOException {
+        record("DELETE " + indexes, taskList);
+    }
+
+    /**
+     * Records that the task with the given ID was marked as done.
+     *
+     * @param id  The ID of the task.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordMarkById(long id, TaskList taskList) throws IOException {
+        record("MARK #" + id, taskList);
+    }
+
+    /**
+     * Records that the task with the given ID was unmarked.
+     *
+     * @param id  The ID of the task.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordUnmarkById(long id, TaskList taskList) throws IOException {
+        record("UNMARK #" + id, taskList);
+    }
+
+    /**
+     * Records that the task with the given ID was deleted.
+     *
+     * @param id  The ID of the task.
+     * @param taskList  The TaskList that was changed.
+     * @throws IOException  If an error occurs while writing the change.
+     */
+    public void recordDeleteById(long id, TaskList taskList) throws IOException {
+        record("DELETE #" + id, taskList);
+    }
+
+    /**
+     * Starts a batch: changes recorded until the matching {@link #endBatch()} are queued and
+     * written together when the batch ends. Batches may be nested.
+     */
+    public void beginBatch() {
+        synchronized (pendingLock) {
+            batchDepth++;
+        }
+    }
+
+    /**
+     * Ends a batch started by {@link #beginBatch()}, writing the changes it recorded in one go
+     * once the outermost batch ends.
+     *
+     * @throws IOException  If an error occurs while writing the changes.
+     */
+    public void endBatch() throws IOException {
+        synchronized (pendingLock) {
+            assert batchDepth > 0 : "endBatch should follow beginBatch.";
+            batchDepth--;
+            if (batchDepth > 0 || pendingTaskList == null) {
+                return;
+            }
+        }
+        writePending();
+    }
+
+    /**
+     * Queues a journal record and writes it, either straight away or through the background saver.
+     * When journaling is off, the record only marks the TaskList as needing a full save.
+     */
+    private void record(String entry, TaskList taskList) throws IOException {
+        synchronized (pendingLock) {
+            if (isJournaled) {
+                pendingEntries.add(entry);
+            }
+            pendingTaskList = taskList;
+            if (batchDepth > 0) {
+                return;
+            }
+        }
+
+        writePending();
+    }
+
+    /**
+     * Writes the queued records straight away, or through the background saver if there is one.
+     */
+    private void writePending() throws IOException {
+        if (saveScheduler != null) {
+            saveScheduler.markDirty();
+        } else {
+            flushPending();
+        }
+    }
+
+    /**
+     * Writes the queued records, or a full snapshot when journaling is off. Starts a background
+     * compaction once the journal reaches the compaction threshold. The time taken is recorded in
+     * {@link Metrics} as "(write)".
+     *
+     * <p>If the write fails, the TaskList stays queued and the storage is marked out of sync, so the
+     * next flush replaces the task file with a full snapshot and starts a fresh journal. The records
+     * that failed are not retried, since part of them may already be in the journal.</p>
+     */
+    private void flushPending() throws IOException {
+        TaskList taskList;
+        synchronized (pendingLock) {
+            taskList = pendingTaskList;
+        }
+        if (taskList == null) {
+            return;
+        }
+
+        List<String> entries;
+        List<Task> snapshot = null;
+        long snapshotLastId = 0;
+        synchronized (taskList) {
+            writeLock.lock();
+            synchronized (pendingLock) {
+                if (pendingTaskList == null) {
+                    writeLock.unlock();
+                    return; // Another flush has already written these changes.
+                }
+                entries = pendingEntries;
+                pendingEntries = new ArrayList<>();
+                pendingTaskList = null;
+            }
+            if (!isJournaled || isOutOfSync || journalLength + entries.size() >= compactionThreshold) {
+                snapshot = taskList.snapshot();
+                snapshotLastId = taskList.getLastId();
+            }
+        }
+
+        long start = Metrics.start();
+        try {
+            if (!isJournaled) {
+                replaceFile(snapshot, snapshotLastId);
+                isOutOfSync = false;
+                return;
+            }
+
+            if (isOutOfSync) {
+                awaitCompaction();
+                rotateJournal();
+                compact(snapshot, snapshotLastId);
+                isOutOfSync = false;
+                return;
+            }
+
+            appendToJournal(entries);
+
+            if (snapshot != null) {
+                awaitCompaction();
+                rotateJournal();
+                List<Task> compactedTasks = snapshot;
+                long compactedLastId = snapshotLastId;
+                pendingCompaction = getCompactor().submit(() -> {
+                    compact(compactedTasks, compactedLastId);
+                    return null;
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            markOutOfSync(taskList);
+            throw e;
+        } finally {
+            writeLock.unlock();
+            Metrics.lap("(write)", Metrics.Phase.PERSIST, start);
+        }
+    }
+
+    /**
+     * Records that a write failed, so that the next flush writes the whole TaskList as a snapshot.
+     * Callers must hold writeLock.
+     */
+    private void markOutOfSync(TaskList taskList) {
+        isOutOfSync = true;
+        synchronized (pendingLock) {
+            if (pendingTaskList == null) {
+                pendingTaskList = taskList;
+            }
+        }
+    }
+
+    /**
+     * Waits for any background compaction to finish.
+     *
+     * @throws IOException  If the compaction failed to write the task file.
+     */
+    void awaitCompaction() throws IOException {
+        writeLock.lock();
+        try {
+            if (pendingCompaction == null) {
+                return;
+            }
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compacting the journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compact the journal", e.getCause());
+        } finally {
+            pendingCompaction = null;
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Appends records to the journal and forces them to disk as the durability level requires.
+     * Under group commit, records that are not forced at once are forced by a background thread
+     * {@link #GROUP_COMMIT_MILLIS} later, unless another write forces them first.
+     * A torn last record is cut off first, so that the new records start on a line of their own.
+     */
+    private void appendToJournal(List<String> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String entry : entries) {
+            text.append(entry).append(System.lineSeparator());
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+
+        try (FileChannel channel = FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.position(dropTornRecord(channel));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            long now = System.nanoTime();
+            if (durability == Durability.FSYNC || durability == Durability.GROUP_COMMIT
+                    && now - lastJournalForceNanos >= TimeUnit.MILLISECONDS.toNanos(GROUP_COMMIT_MILLIS)) {
+                channel.force(true);
+                lastJournalForceNanos = now;
+                hasUnforcedJournal = false;
+            } else if (durability == Durability.GROUP_COMMIT) {
+                hasUnforcedJournal = true;
+                scheduleJournalForce();
+            } else {
+                hasUnforcedJournal = false;
+            }
+        }
+        journalLength += entries.size();
+    }
+
+    /**
+     * Arranges for held-back journal writes to be forced to disk once the group commit interval has passed.
+     */
+    private void scheduleJournalForce() {
+        synchronized (pendingLock) {
+            if (journalForcer == null) {
+                journalForcer = new SaveScheduler(this::forceHeldBackJournal, GROUP_COMMIT_MILLIS);
+            }
+            journalForcer.markDirty();
+        }
+    }
+
+    /**
+     * Forces journal writes that were held back by group commit to disk.
+     */
+    private void forceJournal() throws IOException {
+        if (Files.exists(journalPath)) {
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        lastJournalForceNanos = System.nanoTime();
+        hasUnforcedJournal = false;
+    }
+
+    /**
+     * Moves the active journal aside so that new records start a fresh journal.
+     */
+    private void rotateJournal() throws IOException {
+        if (Files.exists(journalPath)) {
+            Files.move(journalPath, rotatedJournalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        journalLength = 0;
+    }
+
+    /**
+     * Writes a full snapshot and retires the rotated journal.
+     * The rotated journal is only deleted once the snapshot is fully written, and the snapshot
+     * only replaces the task file after that, so {@link #recoverCompaction()} can always tell
+     * which of the two is authoritative after a crash.
+     */
+    private void compact(List<Task> tasks, long lastId) throws IOException {
+        writeSnapshot(compactedPath, tasks, lastId);
+        Files.deleteIfExists(rotatedJournalPath);
+        moveIntoPlace(compactedPath);
+    }
+
+    /**
+     * Replaces the task file with a snapshot, via a temporary file so the task file is never
+     * left half-written.
+     */
+    private void replaceFile(List<Task> tasks, long lastId) throws IOException {
+        writeSnapshot(savingPath, tasks, lastId);
+        moveIntoPlace(savingPath);
+    }
+
+    /**
+     * Atomically moves a fully written snapshot over the task file.
+     */
+    private void moveIntoPlace(Path snapshot) throws IOException {
+        try {
+            Files.move(snapshot, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(snapshot, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (durability != Durability.NONE) {
+            forceDirectory();
+        }
+    }
+
+    /**
+     * Forces the directory entry of a rename to disk. Not every platform allows a directory to
+     * be opened, so this is best-effort.
+     */
+    private void forceDirectory() {
+        Path directory = filePath.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The rename itself has succeeded; only its durability could not be guaranteed.
+        }
+    }
+
+    /**
+     * Finishes or rolls back a compaction that was interrupted by the process exiting.
+     */
+    private void recoverCompaction() throws IOException {
+        if (Files.exists(rotatedJournalPath)) {
+            Files.deleteIfExists(compactedPath);
+        } else if (Files.exists(compactedPath)) {
+            moveIntoPlace(compactedPath);
+        }
+    }
+
+    private ExecutorService getCompactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "buddy-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return compactor;
+    }
+
+    private TaskReader openReader() throws IOException {
+        return isBinary ? BinaryTaskFile.open(filePath) : new TaskFileReader(filePath);
+    }
+
+    /**
+     * Writes every task to the given file in this storage's format, replacing its contents,
+     * and forces it to disk unless the durability level is {@link Durability#NONE}. A text file
+     * only records the highest ID ever given when its last task does not already hold it.
+     */
+    private void writeSnapshot(Path target, List<Task> tasks, long lastId) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+            if (isBinary) {
+                BinaryTaskFile.write(out, tasks, lastId);
+            } else {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                if (lastId > (tasks.isEmpty() ? 0 : tasks.get(tasks.size() - 1).getId())) {
+                    writer.write(TaskCodec.encodeLastId(lastId));
+                    writer.write(System.lineSeparator());
+                }
+                for (Task task : tasks) {
+                    writer.write(task.toFileFormat());
+                    writer.write(System.lineSeparator());
+                }
+                writer.flush();
+            }
+            out.flush();
+            if (durability != Durability.NONE) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Applies every record in the given journal to the list of tasks.
+     *
+     * @return The number of records read from the journal.
+     */
+    private int replay(Path journal, List<Task> tasks) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            dropTornRecord(channel);
+        }
+        List<String> entries = Files.readAllLines(journal);
+        for (String entry : entries) {
+            applyEntry(entry, tasks);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Truncates a journal after its last line break, dropping a last record that was only partly
+     * written when the process stopped, so that it is neither replayed cut short nor joined onto the
+     * next record appended.
+     *
+     * @return The new size of the journal.
+     */
+    private static long dropTornRecord(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = size;
+        ByteBuffer tail = ByteBuffer.allocate(TAIL_READ_SIZE);
+        while (end > 0) {
+            long from = Math.max(0, end - TAIL_READ_SIZE);
+            tail.clear().limit((int) (end - from));
+            while (tail.hasRemaining() && channel.read(tail, from + tail.position()) >= 0) {
+                // Keep reading until the block is full.
+            }
+            int i = tail.position() - 1;
+            while (i >= 0 && tail.get(i) != '\n') {
+                i--;
+            }
+            if (i >= 0) {
+                end = from + i + 1;
+                break;
+            }
+            end = from;
+        }
+        if (end < size) {
+            channel.truncate(end);
+        }
+        return end;
+    }
+
+    /**
+     * Applies a single journal record. MARK, UNMARK and DELETE take one task number, a set such as
+     * {@code 1,4,9-20}, or a task ID such as {@code #12}. Records that refer to a task number that
+     * is out of range are ignored, matching how {@link TaskList} treats the original command.
+     * An ADD record raises the highest ID given to its task's ID, even if that task is deleted later.
+     */
+    private void applyEntry(String entry, List<Task> tasks) {
+        int space = entry.indexOf(' ');
+        if (space < 0) {
+            return;
+        }
+        String operation = entry.substring(0, space);
+        String argument = entry.substring(space + 1);
+
+        if (operation.equals("ADD")) {
+            Task task = TaskCodec.decode(argument);
+            if (task != null) {
+                if (task.getId() <= lastId) {
+                    task.setId(lastId + 1); // Recorded before tasks had IDs
+                }
+                lastId = task.getId();
+                tasks.add(task);
+            }
+            return;
+        }
+
+        if (argument.startsWith("#")) {
+            applyEntryById(operation, argument.substring(1), tasks);
+            return;
+        }
+
+        IndexSet indexes = IndexSet.parse(argument);
+        if (indexes == null || indexes.last() > tasks.size()) {
+            return;
+        }
+
+        switch (operation) {
+        case "MARK":
+            for (int index : indexes.toArray()) {
+                tasks.get(index - 1).markAsDone();
+            }
+            break;
+        case "UNMARK":
+            for (int index : indexes.toArray()) {
+                tasks.get(index - 1).unmarkAsDone();
+            }
+            break;
+        case "DELETE":
+            TaskList.removePositions(tasks, indexes.toArray());
+            break;
         default:
-            return null;
+            break;
         }
     }
-}
 
+    /**
+     * Applies a MARK, UNMARK or DELETE record that names a task by its ID.
+     */
+    private static void applyEntryById(String operation, String argument, List<Task> tasks) {
+        int position;
+        try {
+            position = TaskList.findId(tasks, Long.parseLong(argument.trim()));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (position < 0) {
+            return;
+        }
+
+        switch (operation) {
+        case "MARK":
+            tasks.get(position).markAsDone();
+            break;
+        case "UNMARK":
+            tasks.get(position).unmarkAsDone();
+            break;
+        case "DELETE":
+            tasks.remove(position);
+            break;
+        default:
+            break;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package buddy;
+
+import java.io.IOException;
+
+/**
+ * Converts a task file between the text and binary storage formats.
+ * The format of each file is chosen by its extension, as in {@link Storage}.
+ *
+ * <p>Usage: {@code StorageMigrator <source file> <target file>}, for example
+ * {@code StorageMigrator data/Buddy.txt data/Buddy.bin}.</p>
+ */
+public class StorageMigrator {
+    /**
+     * Runs the migration.
+     *
+     * @param args The source and target file paths.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: StorageMigrator <source file> <target file>");
+            System.exit(1);
+        }
+        try {
+            int count = Storage.migrate(args[0], args[1]);
+            System.out.println("Migrated " + count + " tasks from " + args[0] + " to " + args[1] + ".");
+        } catch (IOException e) {
+            System.err.println("Error migrating tasks: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package buddy;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a task with a description and completion status.
  * This is an abstract class that serves as a base for different task types.
+ *
+ * <p>Everything but the done flag and the ID is fixed once a task is made, so the parts of its display
+ * and file text after the done flag are built once and kept, and only the short prefix holding the
+ * flag is built on each call. Nothing has to be invalidated when a task is marked. Keeping the text
+ * costs memory roughly equal to the description twice over for each task that has been shown or
+ * saved; it can be turned off with {@code -Dbuddy.renderCache=false} or {@link #setRenderCaching}.</p>
  */
 public abstract class Task {
+    private static volatile boolean isRenderCaching = !"false".equalsIgnoreCase(
+            System.getProperty("buddy.renderCache"));
+
     protected String description;
-    protected boolean isDone;
+    protected volatile boolean isDone;
+    private long id;
+    /** The display text after the status icon, once built. */
+    private String displayBody;
+    /** The file fields after the done flag, once built. */
+    private String fileBody;
 
     /**
      * Constructs a Task with the given description and completion status.
@@ -54,6 +67,24 @@ public abstract class Task {
         return "[" + (isDone ? "X" : " ") + "]"; // mark done task with X
     }
 
+    /**
+     * Returns the stable ID of the task, which does not change when other tasks are deleted.
+     *
+     * @return The ID, or 0 if the task has not been added to a TaskList yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the task. IDs are handed out by {@link TaskList}.
+     *
+     * @param id The ID.
+     */
+    void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Returns the description of the task.
      *
@@ -68,7 +99,70 @@ public abstract class Task {
      *
      * @return A formatted string representing the task.
      */
-    public abstract String toFileFormat();
+    public String toFileFormat() {
+        return TaskCodec.encode(this);
+    }
+
+    /**
+     * Sets whether tasks keep the text built for display and for the task file, trading memory for
+     * faster listing and saving. Text already kept is used until the task is garbage collected.
+     *
+     * @param isEnabled Whether to keep the text.
+     */
+    public static void setRenderCaching(boolean isEnabled) {
+        isRenderCaching = isEnabled;
+    }
+
+    /**
+     * Appends the task as shown to the user, e.g. {@code [D][X] essay (by: Mar 05 2030, 12:00 PM)}.
+     *
+     * @param sb The builder to append to.
+     */
+    public void appendTo(StringBuilder sb) {
+        sb.append('[').append(getTypeLetter()).append(isDone ? "][X] " : "][ ] ").append(getDisplayBody());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(description.length() + 64);
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Returns the letter for the type of task used in its display and file text, e.g. {@code 'T'}.
+     */
+    abstract char getTypeLetter();
+
+    /**
+     * Builds the display text after the status icon and its following space.
+     */
+    abstract String renderDisplayBody();
+
+    private String getDisplayBody() {
+        String body = displayBody;
+        if (body == null) {
+            body = renderDisplayBody();
+            if (isRenderCaching) {
+                displayBody = body; // Safe to race: every thread builds the same immutable string
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Returns the file fields after the done flag: the description and any times.
+     */
+    String getFileBody() {
+        String body = fileBody;
+        if (body == null) {
+            body = TaskCodec.encodeBody(this);
+            if (isRenderCaching) {
+                fileBody = body;
+            }
+        }
+        return body;
+    }
 }
 
 /**
@@ -95,13 +189,13 @@ class ToDo extends Task {
     }
 
     @Override
-    public String toFileFormat() {
-        return "T | " + (isDone ? "1" : "0") + " | " + description;
+    char getTypeLetter() {
+        return 'T';
     }
 
     @Override
-    public String toString() {
-        return "[T]" + getStatusIcon() + " " + description;
+    String renderDisplayBody() {
+        return description;
     }
 }
 
@@ -118,8 +212,17 @@ class Deadline extends Task {
      * @param by The due date and time in "yyyy-MM-dd HHmm" format.
      */
     public Deadline(String description, String by) {
-        super(description, false);
-        this.by = LocalDateTime.parse(by, DateTimeFormatter.ofPattern(("yyyy-MM-dd HHmm")));
+        this(description, TaskCodec.parseTimestamp(by), false);
+    }
+
+    /**
+     * Constructs a Deadline task with a description and an already parsed due date.
+     *
+     * @param description The description of the deadline task.
+     * @param by The due date and time.
+     */
+    public Deadline(String description, LocalDateTime by) {
+        this(description, by, false);
     }
 
     /**
@@ -130,9 +233,28 @@ class Deadline extends Task {
      * @param isDone Whether the task is completed.
      */
     public Deadline(String description, String by, boolean isDone) {
+        this(description, TaskCodec.parseTimestamp(by), isDone);
+    }
+
+    /**
+     * Constructs a Deadline task with an already parsed due date and a specified completion status.
+     *
+     * @param description The description of the deadline task.
+     * @param by The due date and time.
+     * @param isDone Whether the task is completed.
+     */
+    public Deadline(String description, LocalDateTime by, boolean isDone) {
         super(description, isDone);
-        this.by = LocalDateTime.parse(by, DateTimeFormatter.ofPattern(("yyyy-MM-dd HHmm")));
+        this.by = by;
+    }
 
+    /**
+     * Returns the due date of the deadline.
+     *
+     * @return The due date and time.
+     */
+    public LocalDateTime getBy() {
+        return by;
     }
 
     /**
@@ -141,20 +263,17 @@ class Deadline extends Task {
      * @return A string representing the due date in "MMM dd yyyy HH:mm" format.
      */
     public String getFormattedTime() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
-        return by.format(formatter);
+        return by.format(DateFormats.SHORT);
     }
 
     @Override
-    public String toFileFormat() {
-        return "D | " + (isDone ? "1" : "0") + " | "
-                + description + " | " + by.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+    char getTypeLetter() {
+        return 'D';
     }
 
     @Override
-    public String toString() {
-        return "[D]" + getStatusIcon() + " " + description
-                + " (by: " + by.format(DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a")) + ")";
+    String renderDisplayBody() {
+        return description + " (by: " + by.format(DateFormats.DISPLAY) + ")";
     }
 }
 
@@ -173,10 +292,18 @@ class Event extends Task {
      * @param to The end date and time in "yyyy-MM-dd HHmm" format.
      */
     public Event(String description, String from, String to) {
-        super(description, false);
-        this.from = LocalDateTime.parse(from, DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-        this.to = LocalDateTime.parse(to, DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+        this(description, TaskCodec.parseTimestamp(from), TaskCodec.parseTimestamp(to), false);
+    }
 
+    /**
+     * Constructs an Event task with an already parsed start time and end time.
+     *
+     * @param description The description of the event.
+     * @param from The start date and time.
+     * @param to The end date and time.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to) {
+        this(description, from, to, false);
     }
 
     /**
@@ -188,9 +315,39 @@ class Event extends Task {
      * @param isDone Whether the task is completed.
      */
     public Event(String description, String from, String to, boolean isDone) {
+        this(description, TaskCodec.parseTimestamp(from), TaskCodec.parseTimestamp(to), isDone);
+    }
+
+    /**
+     * Constructs an Event task with already parsed times and a specified completion status.
+     *
+     * @param description The description of the event.
+     * @param from The start date and time.
+     * @param to The end date and time.
+     * @param isDone Whether the task is completed.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to, boolean isDone) {
         super(description, isDone);
-        this.from = LocalDateTime.parse(from, DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-        this.to = LocalDateTime.parse(to, DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the start time of the event.
+     *
+     * @return The start date and time.
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the end time of the event.
+     *
+     * @return The end date and time.
+     */
+    public LocalDateTime getTo() {
+        return to;
     }
 
     /**
@@ -199,8 +356,7 @@ class Event extends Task {
      * @return A string representing the start time in "MMM dd yyyy HH:mm" format.
      */
     public String getFormattedStartTime() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
-        return from.format(formatter);
+        return from.format(DateFormats.SHORT);
     }
 
     /**
@@ -209,22 +365,18 @@ class Event extends Task {
      * @return A string representing the end time in "MMM dd yyyy HH:mm" format.
      */
     public String getFormattedEndTime() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
-        return to.format(formatter);
+        return to.format(DateFormats.SHORT);
     }
 
     @Override
-    public String toFileFormat() {
-        return "E | " + (isDone ? "1" : "0") + " | " + description + " | "
-                + from.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm")) + " | "
-                + to.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+    char getTypeLetter() {
+        return 'E';
     }
 
     @Override
-    public String toString() {
-        return "[E]" + getStatusIcon() + " " + description + " (from: "
-                + from.format(DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a"))
-                + " to: " + to.format(DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a")) + ")";
+    String renderDisplayBody() {
+        return description + " (from: " + from.format(DateFormats.DISPLAY)
+                + " to: " + to.format(DateFormats.DISPLAY) + ")";
     }
 }
 
@@ -0,0 +1,517 @@
+package buddy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Converts tasks to and from the lines of the task file, such as
+ * {@code "D | 0 | submit report | 2025-03-01 1930"}.
+ *
+ * <p>Fields are located by scanning for the {@code " | "} delimiter and timestamps are read and
+ * written as fixed-width digits, so well-formed lines never go through the regex engine or a
+ * {@link java.time.format.DateTimeFormatter}. Timestamps that are not in the exact
+ * {@code yyyy-MM-dd HHmm} shape fall back to {@link DateFormats#INPUT}, which keeps the
+ * original parsing rules for unusual input.</p>
+ */
+public final class TaskCodec {
+    private static final String DELIMITER = " | ";
+    /** Starts the line that records the highest ID ever given, when a deleted task held it. */
+    private static final String LAST_ID_HEADER = "# last ID ";
+    private static final int TIMESTAMP_LENGTH = 15;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000};
+
+    private TaskCodec() {
+    }
+
+    /**
+     * Converts a task into its line in the task file. Tasks with an ID get it as an extra first
+     * field, e.g. {@code "12 | T | 0 | buy milk"}.
+     *
+     * @param task The task to convert.
+     * @return The task in file format, without a line separator.
+     */
+    public static String encode(Task task) {
+        String body = task.getFileBody();
+        StringBuilder sb = new StringBuilder(body.length() + 32);
+        if (task.getId() > 0) {
+            sb.append(task.getId()).append(DELIMITER);
+        }
+        sb.append(task.getTypeLetter()).append(DELIMITER).append(task.isDone() ? '1' : '0').append(DELIMITER);
+        return sb.append(body).toString();
+    }
+
+    /**
+     * Converts the fields of a task that follow its done flag, which never change, into file format.
+     *
+     * @param task The task to convert.
+     * @return The description and any times, separated by the delimiter.
+     */
+    static String encodeBody(Task task) {
+        StringBuilder sb = new StringBuilder(task.getDescription().length() + 40);
+        sb.append(task.getDescription());
+        if (task instanceof Deadline) {
+            sb.append(DELIMITER);
+            appendTimestamp(sb, ((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            sb.append(DELIMITER);
+            appendTimestamp(sb, ((Event) task).getFrom());
+            sb.append(DELIMITER);
+            appendTimestamp(sb, ((Event) task).getTo());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the line that records the highest ID ever given to a task, such as {@code "# last ID 42"}.
+     * It is written at the top of a task file whose last task no longer holds that ID, so that the ID of
+     * a deleted task is not given out again. Readers that do not know it skip it as a malformed line.
+     *
+     * @param lastId The highest ID ever given.
+     * @return The line, without a line separator.
+     */
+    static String encodeLastId(long lastId) {
+        return LAST_ID_HEADER + lastId;
+    }
+
+    /**
+     * Reads the ID recorded by a line written by {@link #encodeLastId(long)}.
+     *
+     * @param buffer The buffer holding the line. Its position and limit are not changed.
+     * @param start The index of the first byte of the line.
+     * @param end The index just past the last byte of the line, excluding the line separator.
+     * @return The recorded ID, or -1 if the line does not record one.
+     */
+    static long decodeLastId(ByteBuffer buffer, int start, int end) {
+        int idStart = start + LAST_ID_HEADER.length();
+        if (idStart >= end) {
+            return -1;
+        }
+        for (int i = 0; i < LAST_ID_HEADER.length(); i++) {
+            if (buffer.get(start + i) != LAST_ID_HEADER.charAt(i)) {
+                return -1;
+            }
+        }
+        return readId(buffer, idStart, end);
+    }
+
+    /**
+     * Converts a line from the task file into the corresponding task. Lines without an ID field,
+     * as written before tasks had IDs, give a task whose ID is 0.
+     *
+     * @param line A line of the task file, without its line separator.
+     * @return The task, or null if the line is not a valid task.
+     */
+    public static Task decode(String line) {
+        long id = 0;
+        int start = 0;
+        if (!line.isEmpty() && isDigit(line.charAt(0))) {
+            int idEnd = line.indexOf(DELIMITER);
+            id = idEnd < 0 ? -1 : readId(line, 0, idEnd);
+            if (id < 0) {
+                return null;
+            }
+            start = idEnd + DELIMITER.length();
+        }
+
+        Task task = decodeFields(line, start);
+        if (task != null) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Decodes the type, done flag, description and times of the line, starting at {@code start}.
+     */
+    private static Task decodeFields(String line, int start) {
+        int typeEnd = line.indexOf(DELIMITER, start);
+        if (typeEnd != start + 1) {
+            return null;
+        }
+        int doneStart = typeEnd + DELIMITER.length();
+        int doneEnd = line.indexOf(DELIMITER, doneStart);
+        if (doneEnd < 0) {
+            return null;
+        }
+        int descriptionStart = doneEnd + DELIMITER.length();
+        int descriptionEnd = getFieldEnd(line, descriptionStart);
+        if (descriptionEnd == descriptionStart) {
+            return null;
+        }
+
+        char type = line.charAt(start);
+        boolean isDone = doneEnd - doneStart == 1 && line.charAt(doneStart) == '1';
+        String description = line.substring(descriptionStart, descriptionEnd);
+
+        try {
+            switch (type) {
+            case 'T':
+                return new ToDo(description, isDone);
+            case 'D': {
+                if (descriptionEnd == line.length()) {
+                    return null;
+                }
+                int byStart = descriptionEnd + DELIMITER.length();
+                LocalDateTime by = parseTimestamp(line, byStart, getFieldEnd(line, byStart));
+                return new Deadline(description, by, isDone);
+            }
+            case 'E': {
+                if (descriptionEnd == line.length()) {
+                    return null;
+                }
+                int fromStart = descriptionEnd + DELIMITER.length();
+                int fromEnd = getFieldEnd(line, fromStart);
+                if (fromEnd == line.length()) {
+                    return null;
+                }
+                int toStart = fromEnd + DELIMITER.length();
+                LocalDateTime from = parseTimestamp(line, fromStart, fromEnd);
+                LocalDateTime to = parseTimestamp(line, toStart, getFieldEnd(line, toStart));
+                return new Event(description, from, to, isDone);
+            }
+            default:
+                return null;
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the task stored in the UTF-8 bytes between {@code start} and {@code end} of a buffer,
+     * without first copying the line into a string. Only the description is turned into a string.
+     *
+     * @param buffer The buffer holding the line. Its position and limit are not changed.
+     * @param start The index of the first byte of the line.
+     * @param end The index just past the last byte of the line, excluding the line separator.
+     * @return The task, or null if the line is not a valid task.
+     */
+    static Task decode(ByteBuffer buffer, int start, int end) {
+        long id = 0;
+        if (start < end && isDigit((char) buffer.get(start))) {
+            int idEnd = indexOfDelimiter(buffer, start, end);
+            id = idEnd < 0 ? -1 : readId(buffer, start, idEnd);
+            if (id < 0) {
+                return null;
+            }
+            start = idEnd + DELIMITER.length();
+        }
+
+        Task task = decodeFields(buffer, start, end);
+        if (task != null) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Decodes the type, done flag, description and times of the line between {@code start} and {@code end}.
+     */
+    private static Task decodeFields(ByteBuffer buffer, int start, int end) {
+        int typeEnd = indexOfDelimiter(buffer, start, end);
+        if (typeEnd != start + 1) {
+            return null;
+        }
+        int doneStart = typeEnd + DELIMITER.length();
+        int doneEnd = indexOfDelimiter(buffer, doneStart, end);
+        if (doneEnd < 0) {
+            return null;
+        }
+        int descriptionStart = doneEnd + DELIMITER.length();
+        int descriptionEnd = getFieldEnd(buffer, descriptionStart, end);
+        if (descriptionEnd == descriptionStart) {
+            return null;
+        }
+
+        byte type = buffer.get(start);
+        boolean isDone = doneEnd - doneStart == 1 && buffer.get(doneStart) == '1';
+        byte[] descriptionBytes = new byte[descriptionEnd - descriptionStart];
+        buffer.get(descriptionStart, descriptionBytes);
+        String description = new String(descriptionBytes, StandardCharsets.UTF_8);
+
+        try {
+            switch (type) {
+            case 'T':
+                return new ToDo(description, isDone);
+            case 'D': {
+                if (descriptionEnd == end) {
+                    return null;
+                }
+                int byStart = descriptionEnd + DELIMITER.length();
+                LocalDateTime by = parseTimestamp(buffer, byStart, getFieldEnd(buffer, byStart, end));
+                return new Deadline(description, by, isDone);
+            }
+            case 'E': {
+                if (descriptionEnd == end) {
+                    return null;
+                }
+                int fromStart = descriptionEnd + DELIMITER.length();
+                int fromEnd = getFieldEnd(buffer, fromStart, end);
+                if (fromEnd == end) {
+                    return null;
+                }
+                int toStart = fromEnd + DELIMITER.length();
+                LocalDateTime from = parseTimestamp(buffer, fromStart, fromEnd);
+                LocalDateTime to = parseTimestamp(buffer, toStart, getFieldEnd(buffer, toStart, end));
+                return new Event(description, from, to, isDone);
+            }
+            default:
+                return null;
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the bytes between {@code start} and {@code end} hold a line that
+     * {@link #decode(ByteBuffer, int, int)} would accept, without building the task.
+     *
+     * @param buffer The buffer holding the line. Its position and limit are not changed.
+     * @param start The index of the first byte of the line.
+     * @param end The index just past the last byte of the line, excluding the line separator.
+     * @return True if the line is a valid task.
+     */
+    static boolean isValid(ByteBuffer buffer, int start, int end) {
+        if (start < end && isDigit((char) buffer.get(start))) {
+            int idEnd = indexOfDelimiter(buffer, start, end);
+            if (idEnd < 0 || readId(buffer, start, idEnd) < 0) {
+                return false;
+            }
+            start = idEnd + DELIMITER.length();
+        }
+
+        int typeEnd = indexOfDelimiter(buffer, start, end);
+        if (typeEnd != start + 1) {
+            return false;
+        }
+        int doneEnd = indexOfDelimiter(buffer, typeEnd + DELIMITER.length(), end);
+        if (doneEnd < 0) {
+            return false;
+        }
+        int descriptionStart = doneEnd + DELIMITER.length();
+        int descriptionEnd = getFieldEnd(buffer, descriptionStart, end);
+        if (descriptionEnd == descriptionStart) {
+            return false;
+        }
+
+        switch (buffer.get(start)) {
+        case 'T':
+            return true;
+        case 'D': {
+            if (descriptionEnd == end) {
+                return false;
+            }
+            int byStart = descriptionEnd + DELIMITER.length();
+            return isTimestamp(buffer, byStart, getFieldEnd(buffer, byStart, end));
+        }
+        case 'E': {
+            if (descriptionEnd == end) {
+                return false;
+            }
+            int fromStart = descriptionEnd + DELIMITER.length();
+            int fromEnd = getFieldEnd(buffer, fromStart, end);
+            if (fromEnd == end) {
+                return false;
+            }
+            int toStart = fromEnd + DELIMITER.length();
+            return isTimestamp(buffer, fromStart, fromEnd)
+                    && isTimestamp(buffer, toStart, getFieldEnd(buffer, toStart, end));
+        }
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Parses a timestamp in {@code yyyy-MM-dd HHmm} format.
+     *
+     * @param text The timestamp to parse.
+     * @return The parsed date and time.
+     * @throws DateTimeException If the text is not a valid timestamp.
+     */
+    public static LocalDateTime parseTimestamp(String text) {
+        return parseTimestamp(text, 0, text.length());
+    }
+
+    /**
+     * Parses the {@code yyyy-MM-dd HHmm} timestamp between {@code start} and {@code end}.
+     */
+    static LocalDateTime parseTimestamp(CharSequence text, int start, int end) {
+        if (end - start == TIMESTAMP_LENGTH
+                && text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-'
+                && text.charAt(start + 10) == ' ') {
+            int year = readDigits(text, start, 4);
+            int month = readDigits(text, start + 5, 2);
+            int day = readDigits(text, start + 8, 2);
+            int hour = readDigits(text, start + 11, 2);
+            int minute = readDigits(text, start + 13, 2);
+            if (isValidTimestamp(year, month, day, hour, minute)) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(text.subSequence(start, end), DateFormats.INPUT);
+    }
+
+    /**
+     * Parses the {@code yyyy-MM-dd HHmm} timestamp stored as ASCII bytes between {@code start}
+     * and {@code end}.
+     */
+    private static LocalDateTime parseTimestamp(ByteBuffer buffer, int start, int end) {
+        if (end - start == TIMESTAMP_LENGTH
+                && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-'
+                && buffer.get(start + 10) == ' ') {
+            int year = readDigits(buffer, start, 4);
+            int month = readDigits(buffer, start + 5, 2);
+            int day = readDigits(buffer, start + 8, 2);
+            int hour = readDigits(buffer, start + 11, 2);
+            int minute = readDigits(buffer, start + 13, 2);
+            if (isValidTimestamp(year, month, day, hour, minute)) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return LocalDateTime.parse(new String(bytes, StandardCharsets.UTF_8), DateFormats.INPUT);
+    }
+
+    /**
+     * Checks whether the bytes between {@code start} and {@code end} hold a timestamp that
+     * {@link #parseTimestamp(ByteBuffer, int, int)} accepts, only building one for unusual input.
+     */
+    private static boolean isTimestamp(ByteBuffer buffer, int start, int end) {
+        if (end - start == TIMESTAMP_LENGTH
+                && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-'
+                && buffer.get(start + 10) == ' '
+                && isValidTimestamp(readDigits(buffer, start, 4), readDigits(buffer, start + 5, 2),
+                        readDigits(buffer, start + 8, 2), readDigits(buffer, start + 11, 2),
+                        readDigits(buffer, start + 13, 2))) {
+            return true;
+        }
+        try {
+            parseTimestamp(buffer, start, end);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Appends a timestamp in {@code yyyy-MM-dd HHmm} format.
+     */
+    static void appendTimestamp(StringBuilder sb, LocalDateTime time) {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            sb.append(time.format(DateFormats.INPUT));
+            return;
+        }
+        appendDigits(sb, year, 4);
+        sb.append('-');
+        appendDigits(sb, time.getMonthValue(), 2);
+        sb.append('-');
+        appendDigits(sb, time.getDayOfMonth(), 2);
+        sb.append(' ');
+        appendDigits(sb, time.getHour(), 2);
+        appendDigits(sb, time.getMinute(), 2);
+    }
+
+    private static boolean isValidTimestamp(int year, int month, int day, int hour, int minute) {
+        return year >= 0 && month >= 1 && month <= 12 && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59
+                && day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads the positive ID made of the digits between {@code start} and {@code end}, or returns -1.
+     */
+    private static long readId(CharSequence text, int start, int end) {
+        if (end - start > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return -1;
+            }
+            id = id * 10 + (text.charAt(i) - '0');
+        }
+        return id > 0 ? id : -1;
+    }
+
+    private static long readId(ByteBuffer buffer, int start, int end) {
+        if (end - start > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            char c = (char) buffer.get(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id > 0 ? id : -1;
+    }
+
+    private static int getFieldEnd(String line, int start) {
+        int end = line.indexOf(DELIMITER, start);
+        return end < 0 ? line.length() : end;
+    }
+
+    /**
+     * Reads a fixed number of decimal digits, or returns -1 if any of them is not a digit.
+     */
+    private static int readDigits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int getFieldEnd(ByteBuffer buffer, int start, int end) {
+        int fieldEnd = indexOfDelimiter(buffer, start, end);
+        return fieldEnd < 0 ? end : fieldEnd;
+    }
+
+    /**
+     * Returns the index of the first {@code " | "} between {@code start} and {@code end}, or -1.
+     */
+    private static int indexOfDelimiter(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i + 2 < end; i++) {
+            if (buffer.get(i + 1) == '|' && buffer.get(i) == ' ' && buffer.get(i + 2) == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int readDigits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void appendDigits(StringBuilder sb, int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            sb.append((char) ('0' + value / POWERS_OF_TEN[i] % 10));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package buddy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the tasks in a task file in one streaming pass, decoding each task straight from the
+ * file's bytes instead of first splitting the file into line strings.
+ *
+ * <p>Files of at least {@link #MAP_THRESHOLD} bytes are memory-mapped one window at a time.
+ * Smaller files are read through a single heap buffer, since a mapping keeps the file locked on
+ * some platforms until it is garbage collected, which would stop a journal compaction from
+ * replacing it.</p>
+ */
+class TaskFileReader implements TaskReader {
+    /** Files at least this large are memory-mapped instead of read into a buffer. */
+    static final long MAP_THRESHOLD = 16L * 1024 * 1024;
+
+    private static final int MAP_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean isMapped;
+    private ByteBuffer window;
+    private long windowStart;
+    private int position;
+    private Task next;
+    private long lastId;
+
+    /**
+     * Opens a task file for reading.
+     *
+     * @param filePath The task file to read.
+     * @throws IOException If the file cannot be opened.
+     */
+    TaskFileReader(Path filePath) throws IOException {
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.isMapped = fileSize >= MAP_THRESHOLD;
+        loadWindow(0, isMapped ? MAP_WINDOW_SIZE : READ_BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Task task = next;
+        next = null;
+        return task;
+    }
+
+    @Override
+    public long getLastId() {
+        return lastId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Decodes the next valid line, skipping malformed ones and noting the last ID line.
+     *
+     * @return The next task, or null at the end of the file.
+     */
+    private Task readNext() throws IOException {
+        while (true) {
+            int limit = window.limit();
+            int lineEnd = indexOfNewline(position, limit);
+            if (lineEnd < 0) {
+                boolean isLastWindow = windowStart + limit >= fileSize;
+                if (isLastWindow && position >= limit) {
+                    return null;
+                } else if (!isLastWindow) {
+                    // The line continues past this window, so start the next window at the line.
+                    int size = position == 0 ? growWindowSize(limit) : window.capacity();
+                    loadWindow(windowStart + position, size);
+                    continue;
+                }
+                lineEnd = limit;
+            }
+
+            int end = lineEnd;
+            if (end > position && window.get(end - 1) == '\r') {
+                end--;
+            }
+            Task task = TaskCodec.decode(window, position, end);
+            if (task == null) {
+                lastId = Math.max(lastId, TaskCodec.decodeLastId(window, position, end));
+            }
+            position = lineEnd + 1;
+            if (task != null) {
+                return task;
+            }
+        }
+    }
+
+    private int indexOfNewline(int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int growWindowSize(int size) throws IOException {
+        if (size >= Integer.MAX_VALUE / 2) {
+            throw new IOException("A line in the task file is too long to read.");
+        }
+        return size * 2;
+    }
+
+    /**
+     * Makes the window cover up to {@code size} bytes of the file starting at {@code offset}.
+     */
+    private void loadWindow(long offset, int size) throws IOException {
+        int length = (int) Math.min(size, fileSize - offset);
+        if (isMapped) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        } else {
+            if (window == null || window.capacity() < length) {
+                window = ByteBuffer.allocate(Math.max(length, 1));
+            }
+            window.clear();
+            window.limit(length);
+            while (window.hasRemaining()) {
+                if (channel.read(window, offset + window.position()) < 0) {
+                    break;
+                }
+            }
+            window.limit(window.position());
+        }
+        windowStart = offset;
+        position = 0;
+    }
+}
@@ -1,35 +1,154 @@
 package buddy;
 
-import static buddy.FuzzySearch.fuzzySearch;
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The TaskList class represents a collection of tasks and provides methods
  * to manage and manipulate the tasks, including adding, deleting, and marking
  * tasks as done or undone.
+ *
+ * <p>The TaskList can be shared between threads. Changes are made one at a time while holding its
+ * lock. Listing and saving read an immutable {@link #snapshot()} instead, which is copied once after
+ * tasks are added or removed and then shared by every reader until the next such change, so long
+ * reads never hold up writers. The snapshot shares the tasks themselves, whose done flag is
+ * volatile, so a reader may see a task marked after the snapshot was taken.</p>
+ *
+ * <p>Every task has a stable ID as well as its 1-based position. IDs increase along the list, so a
+ * task is found by ID in O(1) through a hash map and its position by a binary search.</p>
+ *
+ * <p>A TaskList over a {@link LazyTaskList} builds its ID, search, time and event indexes the first
+ * time a command needs them, so that listing a page or marking a task by number right after startup
+ * only decodes the tasks it touches.</p>
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    /** The most clashing pairs listed by {@link #findClashes()}. */
+    private static final int MAX_LISTED_CLASHES = 50;
+
+    private final List<Task> tasks;
+    private final FuzzyIndex searchIndex = new FuzzyIndex();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final IntervalTree eventTree = new IntervalTree();
+    private final Map<Long, Task> tasksById = new HashMap<>();
+    private boolean isIndexed;
+    private long lastId;
+    private long version;
+    /** The tasks as of the last addition or removal, or null until a reader asks for them again. */
+    private volatile List<Task> cachedSnapshot;
+
+    /**
+     * Constructs a TaskList with the provided list of tasks, which it then changes in place.
+     * Tasks without an ID, or whose ID is out of order, are given a new one, except in a
+     * {@link LazyTaskList}, which has already checked its IDs.
+     *
+     * @param tasks the initial list of tasks
+     */
+    public TaskList(List<Task> tasks) {
+        this(tasks, 0);
+    }
 
     /**
-     * Constructs a TaskList with the provided list of tasks.
+     * Constructs a TaskList like {@link #TaskList(List)} that gives new tasks IDs above {@code lastId}
+     * as well as above every task in the list, so that the ID of a task deleted before the list was
+     * saved is not given out again.
      *
      * @param tasks the initial list of tasks
+     * @param lastId the highest ID given to any task so far, such as {@link Storage#getLastId()}
      */
-    public TaskList(ArrayList<Task> tasks) {
+    public TaskList(List<Task> tasks, long lastId) {
         this.tasks = tasks;
+        if (!(tasks instanceof LazyTaskList)) {
+            assignMissingIds(tasks);
+            ensureIndexed();
+        }
+        this.lastId = Math.max(lastId, tasks.isEmpty() ? 0 : tasks.get(tasks.size() - 1).getId());
+    }
+
+    /**
+     * Builds the indexes over every task, unless they have already been built.
+     * Callers must hold the TaskList's lock.
+     */
+    private void ensureIndexed() {
+        if (isIndexed) {
+            return;
+        }
+        for (Task task : tasks) {
+            index(task);
+        }
+        isIndexed = true;
+    }
+
+    private void index(Task task) {
+        tasksById.put(task.getId(), task);
+        searchIndex.add(task);
+        timeIndex.add(task);
+        if (task instanceof Event) {
+            eventTree.add((Event) task);
+        }
+    }
+
+    private void unindex(Task task) {
+        tasksById.remove(task.getId());
+        searchIndex.remove(task);
+        timeIndex.remove(task);
+        if (task instanceof Event) {
+            eventTree.remove((Event) task);
+        }
+    }
+
+    /**
+     * Gives each task whose ID is missing or not greater than the one before it the next ID,
+     * so that IDs strictly increase along the list. Lists that already satisfy this are unchanged.
+     *
+     * @param tasks the tasks to number
+     */
+    static void assignMissingIds(List<Task> tasks) {
+        long previous = 0;
+        for (Task task : tasks) {
+            if (task.getId() <= previous) {
+                task.setId(previous + 1);
+            }
+            previous = task.getId();
+        }
     }
 
     /**
-     * Adds a task to the TaskList.
+     * Adds a task to the TaskList, giving it the next ID unless it already has a larger one.
+     * Adding an event that overlaps other events adds a warning to the message.
      *
      * @param task The task to be added.
      * @return A message confirming the task has been added, including the total number of tasks.
      */
-    public String addTask(Task task) {
+    public synchronized String addTask(Task task) {
+        if (task.getId() <= lastId) {
+            task.setId(lastId + 1);
+        }
+        lastId = task.getId();
+        if (!(task instanceof Event)) {
+            tasks.add(task);
+            cachedSnapshot = null;
+            if (isIndexed) {
+                index(task);
+            }
+            version++;
+            return Ui.getAddTaskMessage(task, tasks.size());
+        }
+
+        ensureIndexed(); // The clash check needs the event tree
+        Event event = (Event) task;
+        List<Event> clashes = eventTree.overlapping(event.getFrom(), event.getTo());
         tasks.add(task);
-        return Ui.getAddTaskMessage(task, tasks.size());
+        cachedSnapshot = null;
+        index(task);
+        version++;
+        return Ui.getAddTaskMessage(task, tasks.size()) + Ui.getClashWarning(clashes);
     }
 
     /**
@@ -38,12 +157,17 @@ public class TaskList {
      * @param index the index (1-based) of the task to be deleted
      * @return A message confirming the task has been deleted, or an error message if the index is invalid.
      */
-    public String deleteTask(int index) {
+    public synchronized String deleteTask(int index) {
         if (index < 1 || index > tasks.size()) {
             return Ui.getErrorMessage("Invalid task number for deletion");
         }
 
         Task removedTask = tasks.remove(index - 1);
+        cachedSnapshot = null;
+        if (isIndexed) {
+            unindex(removedTask);
+        }
+        version++;
         return Ui.getDeleteTaskMessage(removedTask, tasks.size());
     }
 
@@ -53,11 +177,12 @@ public class TaskList {
      * @param index the index (1-based) of the task to be marked as done
      * @return A message confirming the task has been marked as done, or an error message if the index is invalid.
      */
-    public String markTaskAsDone(int index) {
+    public synchronized String markTaskAsDone(int index) {
         if (index < 1 || index > tasks.size()) {
             return Ui.getErrorMessage("Invalid task number for marking as done");
         }
         tasks.get(index - 1).markAsDone();
+        version++;
         return Ui.getMarkTaskMessage(tasks.get(index - 1));
     }
 
@@ -67,23 +192,219 @@ public class TaskList {
      * @param index the index (1-based) of the task to be unmarked
      * @return A message confirming the task has been unmarked as done, or an error message if the index is invalid.
      */
-    public String unmarkTaskAsDone(int index) {
+    public synchronized String unmarkTaskAsDone(int index) {
         if (index < 1 || index > tasks.size()) {
             return Ui.getErrorMessage("Invalid task number for unmarking");
         }
         tasks.get(index - 1).unmarkAsDone();
+        version++;
         return Ui.getUnmarkTaskMessage(tasks.get(index - 1));
     }
 
+    /**
+     * Returns the task with the given ID, found by binary search until the indexes have been built.
+     *
+     * @param id the ID of the task
+     * @return The task, or null if no task has that ID.
+     */
+    public synchronized Task getById(long id) {
+        if (!isIndexed) {
+            int position = findId(tasks, id);
+            return position < 0 ? null : tasks.get(position);
+        }
+        return tasksById.get(id);
+    }
+
+    /**
+     * Returns the 1-based position of the task with the given ID, found by binary search.
+     *
+     * @param id the ID of the task
+     * @return The position, or -1 if no task has that ID.
+     */
+    public synchronized int indexOfId(long id) {
+        if (isIndexed && !tasksById.containsKey(id)) {
+            return -1;
+        }
+        int position = findId(tasks, id);
+        return position < 0 ? -1 : position + 1;
+    }
+
+    /**
+     * Finds the task with the given ID by binary search in a list whose IDs increase along it.
+     *
+     * @param tasks the tasks to search
+     * @param id the ID to find
+     * @return The 0-based position of the task, or -1 if no task has that ID.
+     */
+    static int findId(List<Task> tasks, long id) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = tasks.get(middle).getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the task with the given ID as done.
+     *
+     * @param id the ID of the task
+     * @return A message confirming the task has been marked as done, or an error message if there is no such task.
+     */
+    public synchronized String markTaskAsDoneById(long id) {
+        Task task = getById(id);
+        if (task == null) {
+            return Ui.getErrorMessage("There is no task #" + id);
+        }
+        task.markAsDone();
+        version++;
+        return Ui.getMarkTaskMessage(task);
+    }
+
+    /**
+     * Unmarks the task with the given ID.
+     *
+     * @param id the ID of the task
+     * @return A message confirming the task has been unmarked, or an error message if there is no such task.
+     */
+    public synchronized String unmarkTaskAsDoneById(long id) {
+        Task task = getById(id);
+        if (task == null) {
+            return Ui.getErrorMessage("There is no task #" + id);
+        }
+        task.unmarkAsDone();
+        version++;
+        return Ui.getUnmarkTaskMessage(task);
+    }
+
+    /**
+     * Deletes the task with the given ID. Its position is found by binary search, and the tasks
+     * after it still have to be shifted down.
+     *
+     * @param id the ID of the task
+     * @return A message confirming the task has been deleted, or an error message if there is no such task.
+     */
+    public synchronized String deleteTaskById(long id) {
+        int index = indexOfId(id);
+        if (index < 0) {
+            return Ui.getErrorMessage("There is no task #" + id);
+        }
+        return deleteTask(index);
+    }
+
+    /**
+     * Deletes every task in the set in a single pass over the list, so deleting k tasks costs
+     * O(n) rather than O(n * k). Nothing is deleted if any number is out of range.
+     *
+     * @param indexes the 1-based task numbers to delete
+     * @return A message listing the deleted tasks, or an error message if a number is invalid.
+     */
+    public synchronized String deleteTasks(IndexSet indexes) {
+        if (indexes.last() > tasks.size()) {
+            return Ui.getErrorMessage("Invalid task number for deletion: " + indexes.last());
+        }
+
+        int[] positions = indexes.toArray();
+        List<Task> removedTasks = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            Task task = tasks.get(position - 1);
+            removedTasks.add(task);
+            if (isIndexed) {
+                unindex(task);
+            }
+        }
+        removePositions(tasks, positions);
+        cachedSnapshot = null;
+        version++;
+        return Ui.getBulkDeleteMessage(removedTasks, tasks.size());
+    }
+
+    /**
+     * Removes the tasks at the given ascending 1-based positions in one pass over the list.
+     * A {@link LazyTaskList} does this without decoding the tasks it keeps.
+     *
+     * @param tasks the list to remove from
+     * @param positions the positions to remove
+     */
+    static void removePositions(List<Task> tasks, int[] positions) {
+        if (tasks instanceof LazyTaskList) {
+            ((LazyTaskList) tasks).removePositions(positions);
+            return;
+        }
+        int next = 0;
+        int kept = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (next < positions.length && positions[next] == i + 1) {
+                next++;
+            } else {
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+    }
+
+    /**
+     * Marks every task in the set as done. Nothing is marked if any number is out of range.
+     *
+     * @param indexes the 1-based task numbers to mark
+     * @return A message listing the marked tasks, or an error message if a number is invalid.
+     */
+    public synchronized String markTasksAsDone(IndexSet indexes) {
+        if (indexes.last() > tasks.size()) {
+            return Ui.getErrorMessage("Invalid task number for marking as done: " + indexes.last());
+        }
+        List<Task> markedTasks = new ArrayList<>();
+        for (int index : indexes.toArray()) {
+            Task task = tasks.get(index - 1);
+            task.markAsDone();
+            markedTasks.add(task);
+        }
+        version++;
+        return Ui.getBulkMarkMessage(markedTasks, true);
+    }
+
+    /**
+     * Unmarks every task in the set. Nothing is unmarked if any number is out of range.
+     *
+     * @param indexes the 1-based task numbers to unmark
+     * @return A message listing the unmarked tasks, or an error message if a number is invalid.
+     */
+    public synchronized String unmarkTasksAsDone(IndexSet indexes) {
+        if (indexes.last() > tasks.size()) {
+            return Ui.getErrorMessage("Invalid task number for unmarking: " + indexes.last());
+        }
+        List<Task> unmarkedTasks = new ArrayList<>();
+        for (int index : indexes.toArray()) {
+            Task task = tasks.get(index - 1);
+            task.unmarkAsDone();
+            unmarkedTasks.add(task);
+        }
+        version++;
+        return Ui.getBulkMarkMessage(unmarkedTasks, false);
+    }
+
     /**
      * Finds tasks that contain the given keyword in their description.
+     * Only tasks sharing a similar word with the keyword are looked at, using the search index.
      *
      * @param keyword the keyword to search for
      * @return A list of tasks containing the keyword, or a message indicating no matching tasks were found.
      */
     public String findTasks(String keyword) {
-        String foundTasks = fuzzySearch(tasks, keyword);
-        return foundTasks;
+        List<Task> matches;
+        synchronized (this) {
+            ensureIndexed();
+            matches = searchIndex.search(keyword);
+        }
+        return FuzzySearch.formatFoundTasks(matches);
     }
 
     /**
@@ -92,7 +413,37 @@ public class TaskList {
      * @return A formatted string listing all tasks in the TaskList.
      */
     public String listTasks() {
-        return Ui.getTaskList(tasks);
+        return Ui.getTaskList(snapshot());
+    }
+
+    /**
+     * Lists one page of the TaskList.
+     *
+     * @param offset The number of tasks to skip.
+     * @param limit The most tasks to list.
+     * @return A formatted string listing the tasks on the page.
+     */
+    public String listTasks(int offset, int limit) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTasks(offset, limit, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes one page of the TaskList to {@code out} as it is formatted, without building the whole list first.
+     * The page is read from a snapshot, so changes can go on while it is written.
+     *
+     * @param offset The number of tasks to skip.
+     * @param limit The most tasks to write.
+     * @param out Where to write the list.
+     * @throws IOException If writing to {@code out} fails.
+     */
+    public void writeTasks(int offset, int limit, Appendable out) throws IOException {
+        Ui.writeTaskList(snapshot(), offset, limit, out);
     }
 
     /**
@@ -100,7 +451,7 @@ public class TaskList {
      *
      * @return the size of the TaskList
      */
-    public int size() {
+    public synchronized int size() {
         return tasks.size();
     }
 
@@ -110,7 +461,7 @@ public class TaskList {
      * @param index the index of the task to retrieve
      * @return the task at the specified index
      */
-    public Task get(int index) {
+    public synchronized Task get(int index) {
         return tasks.get(index);
     }
 
@@ -119,16 +470,119 @@ public class TaskList {
      *
      * @return true if the TaskList is empty, false otherwise.
      */
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return tasks.isEmpty();
     }
 
+    /**
+     * Lists the deadlines due, and events starting, before the given time, using the time index.
+     *
+     * @param time the exclusive upper bound
+     * @return The matching tasks, earliest first, or a message saying there are none.
+     */
+    public synchronized String findDueBefore(LocalDateTime time) {
+        ensureIndexed();
+        return Ui.getTimedTasks("due before " + time.format(DateFormats.DISPLAY), timeIndex.before(time));
+    }
+
+    /**
+     * Lists the deadlines due, and events starting, between the given times, using the time index.
+     *
+     * @param from the inclusive lower bound
+     * @param to the inclusive upper bound
+     * @return The matching tasks, earliest first, or a message saying there are none.
+     */
+    public synchronized String findBetween(LocalDateTime from, LocalDateTime to) {
+        ensureIndexed();
+        String heading = "between " + from.format(DateFormats.DISPLAY) + " and " + to.format(DateFormats.DISPLAY);
+        return Ui.getTimedTasks(heading, timeIndex.between(from, to));
+    }
+
+    /**
+     * Lists the next deadlines and events at or after the given time, using the time index.
+     *
+     * @param time the inclusive lower bound, usually now
+     * @param count the most tasks to list
+     * @return The matching tasks, earliest first, or a message saying there are none.
+     */
+    public synchronized String findUpcoming(LocalDateTime time, int count) {
+        ensureIndexed();
+        return Ui.getTimedTasks("coming up", timeIndex.after(time, count));
+    }
+
+    /**
+     * Lists the pairs of events whose times overlap, using the interval tree.
+     *
+     * @return The clashing pairs, or a message saying there are none.
+     */
+    public synchronized String findClashes() {
+        ensureIndexed();
+        return Ui.getClashes(eventTree.clashes(MAX_LISTED_CLASHES + 1), MAX_LISTED_CLASHES);
+    }
+
+    /**
+     * Lists the times of a day that no event covers, using the interval tree.
+     *
+     * @param day the day to look at
+     * @return The free slots of the day.
+     */
+    public synchronized String findFreeSlots(LocalDate day) {
+        ensureIndexed();
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        return Ui.getFreeSlots(day, eventTree.freeSlots(start, end), end);
+    }
+
+    /**
+     * Returns the highest ID given to any task, including tasks that have since been deleted.
+     *
+     * @return The highest ID, or 0 if no task has been given one.
+     */
+    public synchronized long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Returns a counter that goes up with every successful change to the list, so callers can tell
+     * whether an operation changed anything.
+     *
+     * @return The number of changes made since the TaskList was created.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the tasks that can be read while the TaskList keeps changing,
+     * for example by a background save. The copy is only made on the first call after tasks are
+     * added or removed; later calls return the same list without taking the lock.
+     *
+     * @return an unmodifiable copy of the list of tasks
+     */
+    public List<Task> snapshot() {
+        List<Task> snapshot = cachedSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (cachedSnapshot == null) {
+                List<Task> copy = tasks instanceof LazyTaskList
+                        ? ((LazyTaskList) tasks).copy()
+                        : new ArrayList<>(tasks);
+                cachedSnapshot = Collections.unmodifiableList(copy);
+            }
+            return cachedSnapshot;
+        }
+    }
+
     /**
      * Returns the list of tasks in the TaskList.
+     * The list must not be modified directly, as that would bypass the search index, and must
+     * only be read by the thread holding the TaskList's lock; other threads should use {@link #snapshot()}.
      *
      * @return the list of tasks
      */
-    public ArrayList<Task> getTasks() {
+    public List<Task> getTasks() {
         return tasks;
     }
 }
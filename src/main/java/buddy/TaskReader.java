@@ -0,0 +1,18 @@
+package buddy;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Reads the tasks of a task file one at a time, in file order.
+ * Reading errors are reported as {@link java.io.UncheckedIOException}.
+ */
+interface TaskReader extends Iterator<Task>, Closeable {
+    /**
+     * Returns the highest ID ever given to a task as recorded in the file, which can be larger than
+     * the ID of its last task if that task was deleted. It is known once every task has been read.
+     *
+     * @return The recorded ID, or 0 if the file does not record one.
+     */
+    long getLastId();
+}
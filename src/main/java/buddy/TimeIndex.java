@@ -0,0 +1,117 @@
+package buddy;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A sorted index of deadlines and events by time, used to answer "what is due" queries without
+ * scanning every task. Deadlines are filed under their due time and events under their start time.
+ *
+ * <p>Entries are keyed by the time in minutes since the epoch and then by task ID, so tasks at the
+ * same minute keep their order. A query costs O(log n + k) for k results.</p>
+ */
+public class TimeIndex {
+    private final NavigableMap<Key, Task> tasksByTime = new TreeMap<>();
+
+    /**
+     * The position of a task in the index: its time, then its ID.
+     */
+    private record Key(long epochMinute, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTime = Long.compare(epochMinute, other.epochMinute);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Adds a task to the index. To-dos have no time and are ignored.
+     *
+     * @param task the task to index
+     */
+    public void add(Task task) {
+        LocalDateTime time = getTime(task);
+        if (time != null) {
+            tasksByTime.put(new Key(toEpochMinute(time), task.getId()), task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the task to remove
+     */
+    public void remove(Task task) {
+        LocalDateTime time = getTime(task);
+        if (time != null) {
+            tasksByTime.remove(new Key(toEpochMinute(time), task.getId()));
+        }
+    }
+
+    /**
+     * Returns the tasks whose time is before the given time, earliest first.
+     *
+     * @param time the exclusive upper bound
+     * @return the matching tasks
+     */
+    public List<Task> before(LocalDateTime time) {
+        return new ArrayList<>(tasksByTime.headMap(new Key(toEpochMinute(time), Long.MIN_VALUE), false).values());
+    }
+
+    /**
+     * Returns the tasks whose time is between the given times, both inclusive, earliest first.
+     *
+     * @param from the inclusive lower bound
+     * @param to the inclusive upper bound
+     * @return the matching tasks
+     */
+    public List<Task> between(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        Key low = new Key(toEpochMinute(from), Long.MIN_VALUE);
+        Key high = new Key(toEpochMinute(to), Long.MAX_VALUE);
+        return new ArrayList<>(tasksByTime.subMap(low, true, high, true).values());
+    }
+
+    /**
+     * Returns up to {@code count} tasks whose time is at or after the given time, earliest first.
+     *
+     * @param time the inclusive lower bound
+     * @param count the most tasks to return
+     * @return the matching tasks
+     */
+    public List<Task> after(LocalDateTime time, int count) {
+        List<Task> result = new ArrayList<>(Math.min(count, 64));
+        for (Task task : tasksByTime.tailMap(new Key(toEpochMinute(time), Long.MIN_VALUE), true).values()) {
+            if (result.size() >= count) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time a task is filed under: a deadline's due time or an event's start time.
+     *
+     * @param task the task
+     * @return the time, or null for tasks without one
+     */
+    static LocalDateTime getTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFrom();
+        }
+        return null;
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
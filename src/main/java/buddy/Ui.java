@@ -1,6 +1,10 @@
 package buddy;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * The Ui class handles all user interface outputs, now returning strings
@@ -8,6 +12,12 @@ import java.util.ArrayList;
  * for use in different output mediums (e.g., GUI, logs).
  */
 public class Ui {
+    /** The number of lines in each chunk of a long response shown by the GUI. */
+    public static final int RESPONSE_CHUNK_LINES = 200;
+
+    /** The most tasks listed in a message about a bulk change. */
+    private static final int MAX_LISTED_TASKS = 10;
+
     /**
      * Returns the welcome message when the program starts.
      */
@@ -22,9 +32,17 @@ public class Ui {
             ⏳ deadline <task> /by YYYY-MM-DD HHMM – Add a deadline task
             🎉 event <task> /from YYYY-MM-DD HHMM /to YYYY-MM-DD HHMM – Add an event
             🔍 find <keyword> – Search for tasks
-            📋 list – View all tasks
+            📅 due before <date> / between <date> and <date> / upcoming <n> – Find tasks by time
+            ⚠️ clashes – Find events that overlap
+            🕒 free <date> – Find the free time on a day
+            📋 list [page <n>] [--limit <n>] – View all tasks, or one page of them
             ❌ delete <task number> – Remove a task
             ✅ mark <task number> – Mark a task as done
+            🆔 Tasks can also be named by the ID shown in the list, e.g. mark #12
+            🔢 Numbers can be ranges or lists, e.g. delete 5-9 or mark 1,4,9-20
+            📦 batch <command>; <command>; ... – Run many commands at once
+            📥 import <file> – Run the commands in a file, one per line
+            📈 stats – Show how long commands take
             🚪 bye – Exit Buddy
 
             💡 Tip: You can type commands in uppercase or lowercase—I'll understand both!
@@ -40,16 +58,141 @@ public class Ui {
      * @param tasks the list of tasks to be displayed
      * @return the formatted task list as a string
      */
+    public static String getTaskList(List<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTaskList(tasks, 0, Integer.MAX_VALUE, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
 
-    public static String getTaskList(ArrayList<Task> tasks) {
+    /**
+     * Writes part of the task list to an {@link Appendable} one task at a time, so that a long list
+     * never has to be held as a single string. Tasks keep their numbers in the whole list.
+     *
+     * @param tasks the list of tasks
+     * @param offset the number of tasks to skip
+     * @param limit the most tasks to write
+     * @param out where to write the list
+     * @throws IOException if writing to {@code out} fails
+     */
+    public static void writeTaskList(List<Task> tasks, int offset, int limit, Appendable out) throws IOException {
         if (tasks.isEmpty()) {
-            return "📋 Your task list is empty! Start adding tasks to stay organized. 😊";
+            out.append("📋 Your task list is empty! Start adding tasks to stay organized. 😊");
+            return;
+        }
+        if (offset >= tasks.size()) {
+            out.append("📋 There are no tasks there. You have ").append(String.valueOf(tasks.size()))
+                    .append(" tasks in the list.");
+            return;
+        }
+
+        int end = (int) Math.min(tasks.size(), (long) offset + limit);
+        if (offset == 0 && end == tasks.size()) {
+            out.append("📋 Here are your tasks:\n");
+        } else {
+            out.append("📋 Here are tasks ").append(String.valueOf(offset + 1)).append('-')
+                    .append(String.valueOf(end)).append(" of ").append(String.valueOf(tasks.size())).append(":\n");
+        }
+        StringBuilder line = new StringBuilder(96);
+        for (int i = offset; i < end; i++) {
+            Task task = tasks.get(i);
+            line.setLength(0);
+            line.append(i + 1).append(". ");
+            task.appendTo(line);
+            line.append(" (#").append(task.getId()).append(")\n");
+            out.append(line);
+        }
+    }
+
+    /**
+     * Returns a formatted list of deadlines and events found by a time query.
+     * Tasks are shown with their IDs, since their positions are not consecutive.
+     *
+     * @param heading what the tasks have in common, e.g. "due before Mar 01 2025, 7:30 PM"
+     * @param tasks the tasks found, earliest first
+     * @return the formatted list, or a message saying no tasks were found
+     */
+    public static String getTimedTasks(String heading, List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return "📅 No deadlines or events " + heading + ".";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("📅 Deadlines and events ").append(heading).append(":\n");
+        for (Task task : tasks) {
+            sb.append("#").append(task.getId()).append(" ").append(task).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a warning listing the events that a newly added event overlaps.
+     *
+     * @param clashes the overlapping events
+     * @return the warning on its own lines, or an empty string if there are no clashes
+     */
+    public static String getClashWarning(List<Event> clashes) {
+        if (clashes.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n⚠️ This clashes with ").append(clashes.size())
+                .append(clashes.size() == 1 ? " event:" : " events:");
+        int shown = Math.min(clashes.size(), MAX_LISTED_TASKS);
+        for (int i = 0; i < shown; i++) {
+            sb.append("\n  #").append(clashes.get(i).getId()).append(" ").append(clashes.get(i));
+        }
+        if (clashes.size() > shown) {
+            sb.append("\n  ...and ").append(clashes.size() - shown).append(" more.");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a formatted list of pairs of clashing events.
+     *
+     * @param clashes the clashing pairs, possibly one more than can be listed
+     * @param limit the most pairs to list
+     * @return the formatted list, or a message saying there are no clashes
+     */
+    public static String getClashes(List<IntervalTree.Clash> clashes, int limit) {
+        if (clashes.isEmpty()) {
+            return "🗓️ None of your events clash.";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("⚠️ These events clash:\n");
+        for (int i = 0; i < clashes.size() && i < limit; i++) {
+            IntervalTree.Clash clash = clashes.get(i);
+            sb.append("#").append(clash.first().getId()).append(" ").append(clash.first())
+                    .append("\n  overlaps #").append(clash.second().getId()).append(" ").append(clash.second())
+                    .append('\n');
         }
+        if (clashes.size() > limit) {
+            sb.append("...and more. Only the first ").append(limit).append(" are shown.\n");
+        }
+        return sb.toString();
+    }
 
+    /**
+     * Returns the free slots of a day.
+     *
+     * @param day the day
+     * @param slots the free slots as pairs of start and end times
+     * @param endOfDay the start of the next day, shown as 24:00
+     * @return the formatted free slots, or a message saying the day is fully booked
+     */
+    public static String getFreeSlots(LocalDate day, List<LocalDateTime[]> slots, LocalDateTime endOfDay) {
+        String heading = day.format(DateFormats.DAY);
+        if (slots.isEmpty()) {
+            return "🗓️ " + heading + " is fully booked.";
+        }
         StringBuilder sb = new StringBuilder();
-        sb.append("📋 Here are your tasks:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append((i + 1)).append(". ").append(tasks.get(i)).append("\n");
+        sb.append("🕒 Free on ").append(heading).append(":\n");
+        for (LocalDateTime[] slot : slots) {
+            sb.append("  ").append(slot[0].format(DateFormats.TIME)).append(" – ")
+                    .append(slot[1].equals(endOfDay) ? "24:00" : slot[1].format(DateFormats.TIME)).append('\n');
         }
         return sb.toString();
     }
@@ -110,6 +253,70 @@ public class Ui {
         );
     }
 
+    /**
+     * Returns a message confirming the deletion of several tasks.
+     * Only the first few tasks are listed.
+     *
+     * @param tasks the tasks that were removed
+     * @param size the current number of tasks in the list
+     * @return the formatted message confirming the deletion
+     */
+    public static String getBulkDeleteMessage(List<Task> tasks, int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Noted. I've removed these ").append(tasks.size()).append(" tasks:\n");
+        appendTaskSample(sb, tasks);
+        sb.append("Now you have ").append(size).append(" tasks in the list.");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a message confirming that several tasks were marked or unmarked as done.
+     * Only the first few tasks are listed.
+     *
+     * @param tasks the tasks that were changed
+     * @param isDone whether the tasks were marked as done rather than unmarked
+     * @return the formatted message confirming the change
+     */
+    public static String getBulkMarkMessage(List<Task> tasks, boolean isDone) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(isDone ? "Nice! I've marked these " : "OK, I've marked these ").append(tasks.size())
+                .append(isDone ? " tasks as done:\n" : " tasks as not done yet:\n");
+        appendTaskSample(sb, tasks);
+        return sb.toString().stripTrailing();
+    }
+
+    /**
+     * Returns a summary of a batch of commands.
+     *
+     * @param succeeded the number of commands that succeeded
+     * @param failed the number of commands that failed
+     * @param failures descriptions of the first few failures
+     * @param size the current number of tasks in the list
+     * @return the formatted summary
+     */
+    public static String getBatchSummary(int succeeded, int failed, List<String> failures, int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("📦 Batch done: ").append(succeeded).append(" succeeded, ").append(failed).append(" failed.\n");
+        for (String failure : failures) {
+            sb.append("  ❌ ").append(failure).append('\n');
+        }
+        if (failed > failures.size()) {
+            sb.append("  ...and ").append(failed - failures.size()).append(" more.\n");
+        }
+        sb.append("Now you have ").append(size).append(" tasks in the list.");
+        return sb.toString();
+    }
+
+    /**
+     * Returns a warning that changes made earlier could not be saved in the background.
+     *
+     * @param reason why the save failed
+     * @return the formatted warning
+     */
+    public static String getSaveFailedMessage(String reason) {
+        return "⚠️ Some of your earlier changes could not be saved: " + reason;
+    }
+
     /**
      * Returns an error message with the provided details.
      *
@@ -119,4 +326,14 @@ public class Ui {
     public static String getErrorMessage(String message) {
         return message;
     }
+
+    private static void appendTaskSample(StringBuilder sb, List<Task> tasks) {
+        int shown = Math.min(tasks.size(), MAX_LISTED_TASKS);
+        for (int i = 0; i < shown; i++) {
+            sb.append("  ").append(tasks.get(i)).append('\n');
+        }
+        if (tasks.size() > shown) {
+            sb.append("  ...and ").append(tasks.size() - shown).append(" more.\n");
+        }
+    }
 }
@@ -24,6 +24,8 @@ public class DialogBox extends HBox {
     @FXML
     private ImageView displayPicture;
 
+    private boolean isFlipped;
+
     private DialogBox(String text, Image img) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
@@ -45,7 +47,30 @@ public class DialogBox extends HBox {
         ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
         Collections.reverse(tmp);
         getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+        isFlipped = !isFlipped;
+        setAlignment(isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+    }
+
+    /**
+     * Shows another message in this dialog box, so that one box can be reused for many messages.
+     *
+     * @param text The message.
+     * @param img The speaker's picture.
+     * @param isUser Whether the user sent the message, which puts the picture on the right.
+     */
+    public void show(String text, Image img, boolean isUser) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        if (isUser == isFlipped) {
+            flip();
+        }
+    }
+
+    /**
+     * Returns an empty dialog box to be filled in later with {@link #show(String, Image, boolean)}.
+     */
+    public static DialogBox getEmptyDialog() {
+        return new DialogBox("", null);
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
@@ -0,0 +1,45 @@
+package gui;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * A list cell that shows a {@link Message} in one {@link DialogBox}, which is reused as the
+ * list scrolls instead of creating a box for every message in the conversation.
+ */
+public class DialogCell extends ListCell<Message> {
+    /** Leaves room for the list's vertical scroll bar. */
+    private static final double SCROLL_BAR_WIDTH = 20.0;
+
+    private final DialogBox dialogBox = DialogBox.getEmptyDialog();
+    private final Image userImage;
+    private final Image buddyImage;
+
+    /**
+     * Constructs a DialogCell for the given list.
+     *
+     * @param listView The list the cell belongs to, whose width the dialog box follows.
+     * @param userImage The user's picture.
+     * @param buddyImage Buddy's picture.
+     */
+    public DialogCell(ListView<Message> listView, Image userImage, Image buddyImage) {
+        this.userImage = userImage;
+        this.buddyImage = buddyImage;
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_WIDTH));
+        dialogBox.setMaxWidth(USE_PREF_SIZE);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        dialogBox.show(message.text(), message.isUser() ? userImage : buddyImage, message.isUser());
+        setGraphic(dialogBox);
+    }
+}
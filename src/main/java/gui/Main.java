@@ -29,4 +29,9 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() throws IOException {
+        buddy.close();
+    }
 }
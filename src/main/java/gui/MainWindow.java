@@ -1,22 +1,30 @@
 package gui;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import buddy.Buddy;
 import buddy.Ui;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    /**
+     * The most messages kept in the conversation, which can be overridden with {@code -Dbuddy.history=...}.
+     * The oldest messages are dropped once there are more.
+     */
+    private static final int HISTORY_LIMIT = Math.max(1, Integer.getInteger("buddy.history", 1000));
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Message> dialogList;
     @FXML
     private TextField userInput;
     @FXML
@@ -24,12 +32,19 @@ public class MainWindow extends AnchorPane {
 
     private Buddy buddy;
 
+    /** Runs commands off the JavaFX thread, one at a time and in the order they were entered. */
+    private final ExecutorService commandThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "buddy-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/User.png"));
     private Image buddyImage = new Image(this.getClass().getResourceAsStream("/images/Buddy.png"));
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setCellFactory(listView -> new DialogCell(listView, userImage, buddyImage));
         showWelcomeMessage();
     }
 
@@ -38,22 +53,42 @@ public class MainWindow extends AnchorPane {
         buddy = b;
     }
 
+    /**
+     * Shows the user's input at once and runs it in the background. A long response such as a big
+     * task list is shown a chunk at a time as it is produced, so the window never waits for all of it.
+     * A command that fails is answered with an error message rather than being dropped silently.
+     */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = buddy.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, buddyImage)
-        );
+        addMessage(new Message(input, true));
         userInput.clear();
+        commandThread.execute(() -> {
+            try {
+                buddy.getResponse(input, chunk -> Platform.runLater(() ->
+                        addMessage(new Message(chunk.stripTrailing(), false))));
+            } catch (RuntimeException e) {
+                String error = Ui.getErrorMessage("Something went wrong: " + e.getMessage());
+                Platform.runLater(() -> addMessage(new Message(error, false)));
+            }
+        });
     }
 
     /** Method to show the welcome message */
     private void showWelcomeMessage() {
-        String welcomeMessage = Ui.showWelcomeMessage();
-        dialogContainer.getChildren().add(
-                DialogBox.getDukeDialog(welcomeMessage, buddyImage)
-        );
+        addMessage(new Message(Ui.showWelcomeMessage(), false));
+    }
+
+    /**
+     * Adds a message to the end of the conversation, drops the oldest messages beyond
+     * {@link #HISTORY_LIMIT} and scrolls to the new message.
+     */
+    private void addMessage(Message message) {
+        ObservableList<Message> messages = dialogList.getItems();
+        messages.add(message);
+        if (messages.size() > HISTORY_LIMIT) {
+            messages.remove(0, messages.size() - HISTORY_LIMIT);
+        }
+        dialogList.scrollTo(messages.size() - 1);
     }
 }
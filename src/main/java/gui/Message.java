@@ -0,0 +1,11 @@
+package gui;
+
+/**
+ * A message in the conversation, kept instead of the node that shows it so that
+ * only the messages on screen need nodes.
+ *
+ * @param text The text of the message.
+ * @param isUser Whether the user sent the message, rather than Buddy.
+ */
+public record Message(String text, boolean isUser) {
+}
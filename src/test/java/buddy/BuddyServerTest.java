@@ -0,0 +1,93 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BuddyServerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writeEscaped_linesStartingWithDot_areDoubledAcrossChunks() throws IOException {
+        StringWriter out = new StringWriter();
+
+        boolean isLineStart = BuddyServer.writeEscaped(".hidden\nplain.\n", true, out);
+        assertTrue(isLineStart);
+        isLineStart = BuddyServer.writeEscaped("..\nend", isLineStart, out);
+        assertFalse(isLineStart);
+        BuddyServer.writeEscaped(".not a line start", isLineStart, out);
+
+        assertEquals("..hidden\nplain.\n...\nend.not a line start", out.toString());
+    }
+
+    @Test
+    public void serve_pipelinedCommands_answeredInOrderAndFileCommandsRefused() throws Exception {
+        Path exported = tempDir.resolve("stats.txt");
+        Path imported = tempDir.resolve("import.txt");
+        Files.writeString(imported, "todo imported\n");
+        Buddy buddy = new Buddy(tempDir.resolve("Buddy.txt").toString());
+        BuddyServer server = new BuddyServer(buddy, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serving.start();
+
+        List<String> responses = new ArrayList<>();
+        try (Socket socket = new Socket()) {
+            socket.connect(server.getAddress());
+            OutputStream out = socket.getOutputStream();
+            out.write(("todo read book\ntodo .hidden\nimport " + imported + "\nstats dump " + exported
+                    + "\nlist\nbye\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            StringBuilder response = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals(".")) {
+                    responses.add(response.toString());
+                    response.setLength(0);
+                } else {
+                    response.append(line.startsWith(".") ? line.substring(1) : line).append('\n');
+                }
+            }
+        } finally {
+            server.close();
+            serving.join();
+            buddy.close();
+        }
+
+        assertEquals(6, responses.size());
+        assertTrue(responses.get(0).contains("read book"), responses.get(0));
+        assertTrue(responses.get(1).contains(".hidden"), responses.get(1));
+        assertTrue(responses.get(2).contains("not available"), responses.get(2));
+        assertTrue(responses.get(3).contains("not available"), responses.get(3));
+        assertTrue(responses.get(4).contains("1. [T][ ] read book")
+                && responses.get(4).contains("2. [T][ ] .hidden")
+                && !responses.get(4).contains("imported"), responses.get(4));
+        assertTrue(responses.get(5).startsWith("Goodbye"), responses.get(5));
+        assertFalse(Files.exists(exported));
+    }
+}
@@ -0,0 +1,76 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class FuzzySearchTest {
+    @Test
+    public void withinDistance_simplePairs() {
+        assertTrue(FuzzySearch.withinDistance("book", "book", 0));
+        assertTrue(FuzzySearch.withinDistance("book", "bok", 1));
+        assertTrue(FuzzySearch.withinDistance("kitten", "sitting", 3));
+        assertFalse(FuzzySearch.withinDistance("kitten", "sitting", 2));
+        assertFalse(FuzzySearch.withinDistance("a", "abcd", 2));
+        assertTrue(FuzzySearch.withinDistance("", "ab", 2));
+    }
+
+    @Test
+    public void withinDistance_randomPairs_agreesWithFullDistance() {
+        Random random = new Random(42);
+        for (int n = 0; n < 5000; n++) {
+            String s1 = randomWord(random);
+            String s2 = randomWord(random);
+            int distance = FuzzySearch.getLevenshteinDistance(s1, s2);
+            for (int k = 0; k <= 3; k++) {
+                assertEquals(distance <= k, FuzzySearch.withinDistance(s1, s2, k), s1 + " / " + s2 + " / " + k);
+            }
+        }
+    }
+
+    @Test
+    public void indexSearch_manyCandidateWords_parallelMatchesSequential() {
+        FuzzyIndex index = new FuzzyIndex();
+        List<Task> tasks = new ArrayList<>();
+        String letters = "abcdefgh";
+        for (int i = 0; i < 32_768; i++) { // Every five-letter word, over 4,096 of them candidates for "abcde".
+            StringBuilder word = new StringBuilder();
+            for (int n = i; word.length() < 5; n /= letters.length()) {
+                word.append(letters.charAt(n % letters.length()));
+            }
+            Task task = new ToDo(word.toString());
+            task.setId(i + 1);
+            tasks.add(task);
+            index.add(task);
+        }
+
+        ForkJoinPool previous = FuzzySearch.getParallelPool();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FuzzySearch.setParallelPool(null);
+            List<Task> sequential = index.search("abcde");
+            FuzzySearch.setParallelPool(pool);
+            assertEquals(sequential, index.search("abcde"));
+            assertEquals(FuzzySearch.fuzzySearch(tasks, "abcde"), FuzzySearch.formatFoundTasks(sequential));
+        } finally {
+            FuzzySearch.setParallelPool(previous);
+            pool.shutdown();
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+}
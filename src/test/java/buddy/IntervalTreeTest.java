@@ -0,0 +1,74 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    public void overlappingAndClashes_randomEvents_matchPairwiseScan() {
+        Random random = new Random(7);
+        IntervalTree tree = new IntervalTree();
+        List<Event> events = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            LocalDateTime from = START.plusMinutes(random.nextInt(20_000));
+            Event event = new Event("event " + i, from, from.plusMinutes(1 + random.nextInt(300)));
+            event.setId(i);
+            events.add(event);
+            tree.add(event);
+        }
+        for (int i = 0; i < 100; i++) {
+            tree.remove(events.remove(random.nextInt(events.size())));
+        }
+        assertEquals(events.size(), tree.size());
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime from = START.plusMinutes(random.nextInt(20_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(600));
+            long expected = events.stream()
+                    .filter(event -> event.getFrom().isBefore(to) && event.getTo().isAfter(from)).count();
+            assertEquals(expected, tree.overlapping(from, to).size());
+        }
+
+        int expectedClashes = 0;
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = i + 1; j < events.size(); j++) {
+                Event a = events.get(i);
+                Event b = events.get(j);
+                if (a.getFrom().isBefore(b.getTo()) && b.getFrom().isBefore(a.getTo())) {
+                    expectedClashes++;
+                }
+            }
+        }
+        assertEquals(expectedClashes, tree.clashes(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void addEvent_overlapping_warnsAndFindsFreeSlots() throws Exception {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        Storage storage = new Storage(Paths.get("data", "Buddy.txt").toString());
+        Parser.parseCommand("event standup /from 2030-03-01 0900 /to 2030-03-01 1000", taskList, storage);
+        String added = Parser.parseCommand("event review /from 2030-03-01 0930 /to 2030-03-01 1200",
+                taskList, storage);
+        assertTrue(added.contains("This clashes with 1 event:") && added.contains("standup"), added);
+        String touching = Parser.parseCommand("event lunch /from 2030-03-01 1200 /to 2030-03-01 1300",
+                taskList, storage);
+        assertTrue(!touching.contains("clashes"), touching);
+
+        assertTrue(Parser.parseCommand("clashes", taskList, storage).contains("overlaps #2"));
+        String free = Parser.parseCommand("free 2030-03-01", taskList, storage);
+        assertTrue(free.contains("00:00 – 09:00") && free.contains("13:00 – 24:00"), free);
+
+        Parser.parseCommand("delete 2", taskList, storage);
+        assertTrue(Parser.parseCommand("clashes", taskList, storage).contains("None of your events clash"));
+    }
+}
@@ -0,0 +1,73 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void histogram_percentiles_withinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p50 >= 50_000_000 && p50 <= 50_000_000 * 1.07, "p50 was " + p50);
+        assertTrue(p99 >= 99_000_000 && p99 <= 100_000_000, "p99 was " + p99);
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void histogram_bucketBounds_contiguous() {
+        long previous = -1;
+        for (int bucket = 0; bucket < 500; bucket++) {
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previous + 1));
+            assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void parseCommand_metricsOn_recordsPhases() throws Exception {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        Storage storage = new Storage(tempDir.resolve("Buddy.txt").toString());
+
+        Parser.parseCommand("todo read book", taskList, storage);
+        assertNull(Metrics.getHistogram("todo", Metrics.Phase.PARSE));
+
+        Parser.parseCommand("stats on", taskList, storage);
+        Parser.parseCommand("todo read book", taskList, storage);
+        Parser.parseCommand("mark 1", taskList, storage);
+        Parser.parseCommand("list", taskList, storage);
+
+        assertEquals(1, Metrics.getHistogram("todo", Metrics.Phase.PERSIST).getCount());
+        assertEquals(1, Metrics.getHistogram("mark", Metrics.Phase.EXECUTE).getCount());
+        assertEquals(0, Metrics.getHistogram("list", Metrics.Phase.PERSIST).getCount());
+        assertTrue(Parser.parseCommand("stats", taskList, storage).contains("mark: 1 runs"));
+
+        Path dump = tempDir.resolve("stats.txt");
+        Parser.parseCommand("stats dump " + dump, taskList, storage);
+        assertTrue(Files.readString(dump).contains("todo: 1 runs"));
+    }
+}
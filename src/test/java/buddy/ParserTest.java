@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -77,4 +79,72 @@ public class ParserTest {
 
         assertTrue(taskList.get(0).isDone());
     }
+
+    @Test
+    public void testParseSingleIndexRangeAndList() throws IOException {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        Parser.parseCommand("batch todo a; todo b; todo c", taskList, storage);
+        Parser.parseCommand("mark 2-2", taskList, storage);
+        Parser.parseCommand("delete 3,3", taskList, storage);
+
+        assertEquals(2, taskList.size());
+        assertFalse(taskList.get(0).isDone());
+        assertTrue(taskList.get(1).isDone());
+        Parser.parseCommand("unmark 2-2", taskList, storage);
+        assertFalse(taskList.get(1).isDone());
+    }
+
+    @Test
+    public void testParseMissingArguments() throws IOException {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        assertEquals("The description or deadline must be provided.",
+                Parser.parseCommand("deadline return book", taskList, storage));
+        assertEquals("The description, start time, or end time of an event must be provided.",
+                Parser.parseCommand("event party /from 2024-12-05 1400", taskList, storage));
+        assertEquals(0, taskList.size());
+    }
+
+    @Test
+    public void testRegisteredCommand() throws IOException {
+        Parser.register("count", (input, taskList, storage) -> taskList.size() + " " + input.getArguments());
+        TaskList taskList = new TaskList(new ArrayList<>());
+        Parser.parseCommand("todo read book", taskList, storage);
+
+        assertEquals("1 tasks", Parser.parseCommand("  COUNT   tasks ", taskList, storage));
+    }
+
+    @Test
+    public void testListPage() throws IOException {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        for (int i = 1; i <= 5; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+
+        assertEquals("📋 Here are tasks 3-4 of 5:\n3. [T][ ] task 3 (#3)\n4. [T][ ] task 4 (#4)\n",
+                Parser.parseCommand("list page 2 --limit 2", taskList, storage));
+        assertEquals(Parser.parseCommand("list page 2 --limit 2", taskList, storage),
+                Parser.parseCommand("list  PAGE\t2   --limit 2 ", taskList, storage));
+        assertTrue(Parser.parseCommand("list page 4 --limit 2", taskList, storage)
+                .startsWith("📋 There are no tasks"));
+        assertEquals(Ui.getTaskList(new ArrayList<>(taskList.snapshot())),
+                Parser.parseCommand("list", taskList, storage));
+        assertEquals("Please use: list [page <number>] [--limit <number>]",
+                Parser.parseCommand("list page zero", taskList, storage));
+    }
+
+    @Test
+    public void testListStreamsInChunks() throws IOException {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        for (int i = 1; i <= 5; i++) {
+            taskList.addTask(new ToDo("task " + i));
+        }
+        List<String> chunks = new ArrayList<>();
+        ChunkedWriter out = new ChunkedWriter(2, chunks::add);
+
+        assertEquals("", Parser.parseCommand("list", taskList, storage, out));
+        out.flush();
+        assertEquals(3, chunks.size());
+        assertEquals("📋 Here are your tasks:\n1. [T][ ] task 1 (#1)\n", chunks.get(0));
+        assertEquals(Parser.parseCommand("list", taskList, storage), String.join("", chunks));
+    }
 }
@@ -0,0 +1,400 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_journaledMutations_replayedOnTopOfSnapshot() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        Parser.parseCommand("todo read book", taskList, storage);
+        Parser.parseCommand("todo buy milk", taskList, storage);
+        Parser.parseCommand("mark 2", taskList, storage);
+        Parser.parseCommand("delete 1", taskList, storage);
+
+        assertEquals(0, Files.size(tempDir.resolve("Buddy.txt")));
+        List<Task> reloaded = new Storage(file, true).load();
+        assertEquals(1, reloaded.size());
+        assertEquals("buy milk", reloaded.get(0).getDescription());
+        assertTrue(reloaded.get(0).isDone());
+    }
+
+    @Test
+    public void record_thresholdReached_compactsJournalIntoSnapshot() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true, 3);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        Parser.parseCommand("todo one", taskList, storage);
+        Parser.parseCommand("todo two", taskList, storage);
+        Parser.parseCommand("todo three", taskList, storage);
+        storage.awaitCompaction();
+        Parser.parseCommand("todo four", taskList, storage);
+
+        assertEquals(3, Files.readAllLines(tempDir.resolve("Buddy.txt")).size());
+        assertFalse(Files.exists(tempDir.resolve("Buddy.txt.journal.old")));
+        assertEquals(4, new Storage(file, true).load().size());
+    }
+
+    @Test
+    public void load_mappedFileWithWindowsLineEndings_decodesEveryTask() throws IOException {
+        Path file = tempDir.resolve("Buddy.txt");
+        StringBuilder content = new StringBuilder();
+        int count = 0;
+        while (content.length() < TaskFileReader.MAP_THRESHOLD) {
+            content.append("D | 1 | task ").append(count++).append(" | 2025-03-01 1930\r\n");
+        }
+        content.append("not a task\nT | 0 | last");
+        Files.writeString(file, content);
+
+        List<Task> tasks = new Storage(file.toString()).load();
+        assertEquals(count + 1, tasks.size());
+        assertEquals("task 0", tasks.get(0).getDescription());
+        assertEquals("last", tasks.get(count).getDescription());
+
+        try (Stream<Task> stream = new Storage(file.toString()).stream()) {
+            assertEquals(tasks.stream().map(Task::toFileFormat).collect(Collectors.toList()),
+                    stream.map(Task::toFileFormat).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void migrate_textToBinary_preservesTasks() throws IOException {
+        Path text = tempDir.resolve("Buddy.txt");
+        Files.write(text, List.of(
+                "T | 0 | buy milk",
+                "D | 1 | submit report | 2025-03-01 1930",
+                "E | 0 | exams ✍ | 1969-12-31 2300 | 2025-03-10 1930"));
+        Path binary = tempDir.resolve("Buddy.bin");
+
+        assertEquals(3, Storage.migrate(text.toString(), binary.toString()));
+        assertTrue(Files.size(binary) < Files.size(text));
+
+        List<Task> tasks = new Storage(binary.toString()).load();
+        assertEquals(List.of(
+                "1 | T | 0 | buy milk",
+                "2 | D | 1 | submit report | 2025-03-01 1930",
+                "3 | E | 0 | exams ✍ | 1969-12-31 2300 | 2025-03-10 1930"),
+                tasks.stream().map(Task::toFileFormat).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void migrate_missingSource_failsWithoutCreatingIt() {
+        Path missing = tempDir.resolve("Missing.txt");
+
+        assertThrows(NoSuchFileException.class,
+                () -> Storage.migrate(missing.toString(), tempDir.resolve("Buddy.bin").toString()));
+        assertFalse(Files.exists(missing));
+        assertFalse(Files.exists(tempDir.resolve("Buddy.bin")));
+    }
+
+    @Test
+    public void flush_backgroundSaves_coalescesBurstIntoJournal() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        storage.enableBackgroundSaves(60_000);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        Parser.parseCommand("todo read book", taskList, storage);
+        Parser.parseCommand("todo buy milk", taskList, storage);
+        Parser.parseCommand("mark 1", taskList, storage);
+        assertFalse(Files.exists(tempDir.resolve("Buddy.txt.journal")));
+
+        storage.flush();
+        assertEquals(3, Files.readAllLines(tempDir.resolve("Buddy.txt.journal")).size());
+        List<Task> reloaded = new Storage(file, true).load();
+        assertEquals(2, reloaded.size());
+        assertTrue(reloaded.get(0).isDone());
+    }
+
+    @Test
+    public void close_backgroundSavesAndGroupCommit_writesPendingChanges() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        storage.setDurability(Durability.GROUP_COMMIT);
+        storage.enableBackgroundSaves(60_000);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Parser.parseCommand("todo read book", taskList, storage);
+        Parser.parseCommand("todo buy milk", taskList, storage);
+
+        storage.close();
+        assertEquals(2, new Storage(file, true).load().size());
+    }
+
+    @Test
+    public void save_fsync_replacesFileWithoutLeavingTempFile() throws IOException {
+        Path file = tempDir.resolve("Buddy.txt");
+        Files.writeString(file, "T | 0 | old task\n");
+        Files.writeString(tempDir.resolve("Buddy.txt.saving"), "T | 0 | half-written");
+        Storage storage = new Storage(file.toString());
+        storage.setDurability(Durability.FSYNC);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        Parser.parseCommand("todo new task", taskList, storage);
+
+        assertFalse(Files.exists(tempDir.resolve("Buddy.txt.saving")));
+        assertEquals(List.of("1 | T | 0 | old task", "2 | T | 0 | new task"), Files.readAllLines(file));
+    }
+
+    @Test
+    public void batch_journaled_writesChangesOnceAtEnd() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        storage.beginBatch();
+        Parser.parseCommand("todo read book", taskList, storage);
+        Parser.parseCommand("mark 1", taskList, storage);
+        assertFalse(Files.exists(tempDir.resolve("Buddy.txt.journal")));
+        storage.endBatch();
+
+        assertEquals(2, Files.readAllLines(tempDir.resolve("Buddy.txt.journal")).size());
+        assertTrue(new Storage(file, true).load().get(0).isDone());
+    }
+
+    @Test
+    public void importCommand_mixedLines_summarisesFailures() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Path commands = tempDir.resolve("commands.txt");
+        Files.write(commands, List.of(
+                "# groceries",
+                "todo buy milk",
+                "deadline return book /by 2025-03-01 1930",
+                "",
+                "mark 9",
+                "list",
+                "mark 2"));
+
+        String summary = Parser.parseCommand("import " + commands, taskList, storage);
+
+        assertTrue(summary.startsWith("📦 Batch done: 3 succeeded, 2 failed."), summary);
+        assertTrue(summary.contains("5. mark 9: "), summary);
+        assertTrue(summary.contains("6. list: 'list' cannot be used in a batch."), summary);
+        assertEquals(2, new Storage(file, true).load().size());
+
+        String batchSummary = Parser.parseCommand("batch todo a; todo b;; delete 1", taskList, storage);
+        assertTrue(batchSummary.startsWith("📦 Batch done: 3 succeeded, 0 failed."), batchSummary);
+        assertEquals(3, taskList.size());
+    }
+
+    @Test
+    public void load_bulkRecords_replayedAsSets() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Parser.parseCommand("batch todo a; todo b; todo c; todo d; todo e", taskList, storage);
+
+        Parser.parseCommand("mark 1,3-5", taskList, storage);
+        Parser.parseCommand("delete 1-2,4", taskList, storage);
+
+        List<String> journal = Files.readAllLines(tempDir.resolve("Buddy.txt.journal"));
+        assertEquals(List.of("MARK 1,3-5", "DELETE 1-2,4"), journal.subList(5, 7));
+        List<Task> reloaded = new Storage(file, true).load();
+        assertEquals(List.of("c", "e"), reloaded.stream().map(Task::getDescription).collect(Collectors.toList()));
+        assertTrue(reloaded.get(0).isDone() && reloaded.get(1).isDone());
+    }
+
+    @Test
+    public void record_invalidIndex_notJournaled() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Parser.parseCommand("todo a", taskList, storage);
+
+        Parser.parseCommand("mark 5", taskList, storage);
+        Parser.parseCommand("unmark 5", taskList, storage);
+        Parser.parseCommand("delete 5", taskList, storage);
+
+        assertEquals(1, Files.readAllLines(tempDir.resolve("Buddy.txt.journal")).size());
+        assertEquals(1, new Storage(file, true).load().size());
+    }
+
+    @Test
+    public void record_appendFails_nextFlushWritesSnapshot() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Path journal = tempDir.resolve("Buddy.txt.journal");
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Parser.parseCommand("todo one", taskList, storage);
+        Parser.parseCommand("todo two", taskList, storage);
+        Parser.parseCommand("delete 1", taskList, storage);
+
+        Files.delete(journal);
+        Files.createDirectory(journal);
+        assertThrows(IOException.class, () -> Parser.parseCommand("todo three", taskList, storage));
+        Files.delete(journal);
+        Parser.parseCommand("mark 2", taskList, storage);
+
+        List<Task> reloaded = new Storage(file, true).load();
+        assertEquals(List.of("two", "three"), reloaded.stream().map(Task::getDescription).collect(Collectors.toList()));
+        assertTrue(reloaded.get(1).isDone());
+    }
+
+    @Test
+    public void load_tornLastJournalRecord_droppedAndNextAppendStartsNewLine() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Path journal = tempDir.resolve("Buddy.txt.journal");
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Parser.parseCommand("todo a", taskList, storage);
+        Parser.parseCommand("todo buy milk", taskList, storage);
+        String records = Files.readString(journal);
+        Files.writeString(journal, records.substring(0, records.length() - 6));
+
+        Storage reopened = new Storage(file, true);
+        TaskList reloaded = new TaskList(new ArrayList<>(reopened.load()));
+        assertEquals(1, reloaded.size());
+        Parser.parseCommand("mark 1", reloaded, reopened);
+
+        List<Task> tasks = new Storage(file, true).load();
+        assertEquals(List.of("a"), tasks.stream().map(Task::getDescription).collect(Collectors.toList()));
+        assertTrue(tasks.get(0).isDone());
+    }
+
+    @Test
+    public void backgroundSave_fails_errorReportedOnce() throws Exception {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Storage storage = new Storage(file, true);
+        storage.enableBackgroundSaves(0);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+        Files.createDirectory(tempDir.resolve("Buddy.txt.journal"));
+
+        Parser.parseCommand("todo a", taskList, storage);
+        IOException error = null;
+        for (int i = 0; i < 500 && error == null; i++) {
+            Thread.sleep(10);
+            error = storage.takeBackgroundSaveError();
+        }
+
+        assertTrue(error != null, "The failed background save should be reported");
+        assertTrue(storage.takeBackgroundSaveError() == null);
+    }
+
+    @Test
+    public void taskIds_deleteAndReload_stayStable() throws IOException {
+        String file = tempDir.resolve("Buddy.txt").toString();
+        Files.writeString(tempDir.resolve("Buddy.txt"), "T | 0 | old a\nT | 0 | old b\n");
+        Storage storage = new Storage(file, true);
+        TaskList taskList = new TaskList(new ArrayList<>(storage.load()));
+
+        Parser.parseCommand("todo c", taskList, storage);
+        Parser.parseCommand("delete 1", taskList, storage);
+        Parser.parseCommand("mark #3", taskList, storage);
+        assertEquals(2, taskList.indexOfId(3));
+        Parser.parseCommand("delete #2", taskList, storage);
+
+        TaskList reloaded = new TaskList(new ArrayList<>(new Storage(file, true).load()));
+        assertEquals(1, reloaded.size());
+        assertEquals("c", reloaded.getById(3).getDescription());
+        assertTrue(reloaded.getById(3).isDone());
+        assertEquals(1, reloaded.indexOfId(3));
+        assertEquals(-1, reloaded.indexOfId(2));
+
+        storage.save(taskList);
+        assertEquals(List.of("3 | T | 1 | c"), Files.readAllLines(tempDir.resolve("Buddy.txt")));
+        assertEquals(3, new Storage(file, true).load().get(0).getId());
+    }
+
+    @Test
+    public void taskIds_topIdDeletedAndReloaded_notReused() throws IOException {
+        for (String name : List.of("Journaled.txt", "Plain.txt", "Plain.bin")) {
+            String file = tempDir.resolve(name).toString();
+            boolean isJournaled = name.startsWith("Journaled");
+            Storage storage = new Storage(file, isJournaled);
+            TaskList taskList = new TaskList(new ArrayList<>(storage.load()), storage.getLastId());
+            Parser.parseCommand("batch todo a; todo b; todo c", taskList, storage);
+            Parser.parseCommand("delete 3", taskList, storage);
+
+            assertEquals(4L, addAfterReload(new Storage(file, isJournaled)), name + " before saving");
+            storage.save(taskList); // Folds the journal into the snapshot
+            assertEquals(4L, addAfterReload(new Storage(file, isJournaled)), name + " after saving");
+            Storage lazy = new Storage(file, isJournaled);
+            lazy.setLazyLoading(true);
+            assertEquals(4L, addAfterReload(lazy), name + " loaded lazily");
+        }
+        assertTrue(Files.readAllLines(tempDir.resolve("Plain.txt")).contains(TaskCodec.encodeLastId(3)));
+    }
+
+    /**
+     * Loads the tasks, adds one and returns the ID it was given.
+     */
+    private static long addAfterReload(Storage storage) throws IOException {
+        List<Task> tasks = storage.load();
+        TaskList taskList = new TaskList(tasks instanceof LazyTaskList ? tasks : new ArrayList<>(tasks),
+                storage.getLastId());
+        Task task = new ToDo("new");
+        taskList.addTask(task);
+        return task.getId();
+    }
+
+    @Test
+    public void load_lazily_decodesOnlyTouchedTasksAndMatchesEagerLoad() throws IOException {
+        Path file = tempDir.resolve("Buddy.txt");
+        List<Task> tasks = List.of(new ToDo("read book"),
+                new Deadline("essay", LocalDateTime.of(2030, 3, 5, 12, 0)),
+                new Event("trip", LocalDateTime.of(2030, 3, 1, 9, 0), LocalDateTime.of(2030, 3, 3, 18, 0), true),
+                new ToDo("buy milk"));
+        long[] ids = {1, 2, 3, 5};
+        List<String> lines = new ArrayList<>(List.of(""));
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId(ids[i]);
+            lines.add(TaskCodec.encode(tasks.get(i)) + "\r");
+        }
+        Files.write(file, lines);
+        Storage storage = new Storage(file.toString(), true);
+        storage.setLazyLoading(true);
+        List<Task> loaded = storage.load();
+        assertTrue(loaded instanceof LazyTaskList);
+        TaskList taskList = new TaskList(loaded);
+
+        Parser.parseCommand("mark #5", taskList, storage);
+        Parser.parseCommand("delete 1-2", taskList, storage);
+        Parser.parseCommand("todo walk dog", taskList, storage);
+        assertEquals("📋 Here are tasks 2-2 of 3:\n2. [T][X] buy milk (#5)\n",
+                Parser.parseCommand("list page 2 --limit 1", taskList, storage));
+        assertTrue(Parser.parseCommand("find milk", taskList, storage).contains("buy milk"));
+
+        Storage eager = new Storage(file.toString(), true);
+        assertEquals(Ui.getTaskList(taskList.snapshot()), Ui.getTaskList(eager.load()));
+        Files.write(file, List.of("T | 0 | no ID"));
+        assertFalse(storage.load() instanceof LazyTaskList);
+        Path malformed = tempDir.resolve("Malformed.txt");
+        Files.write(malformed, List.of("1 | T | 0 | kept", "2 | D | 0 | bad date | 2030-13-01 1200",
+                "3 | X | 0 | unknown type"));
+        Storage malformedStorage = new Storage(malformed.toString(), true);
+        malformedStorage.setLazyLoading(true);
+        List<Task> reloaded = malformedStorage.load();
+        assertFalse(reloaded instanceof LazyTaskList);
+        assertEquals(List.of("kept"), reloaded.stream().map(Task::getDescription).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void durabilityParse_unknownName_fallsBack() {
+        assertEquals(Durability.GROUP_COMMIT, Durability.parse(" group_commit ", Durability.FSYNC));
+        assertEquals(Durability.FSYNC, Durability.parse("fsnyc", Durability.FSYNC));
+        assertEquals(Durability.FSYNC, Durability.parse(null, Durability.FSYNC));
+    }
+}
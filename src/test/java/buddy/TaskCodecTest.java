@@ -0,0 +1,79 @@
+package buddy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskCodecTest {
+    @Test
+    public void decode_validLines_roundTrip() {
+        String[] lines = {
+            "T | 0 | buy milk",
+            "D | 1 | submit report | 2025-03-01 1930",
+            "E | 0 | exams | 2025-03-08 1530 | 2025-03-10 1930",
+            "D | 0 | leap day | 2024-02-29 0000",
+            "42 | T | 1 | with id",
+            "7 | E | 0 | numbered | 2025-03-08 1530 | 2025-03-10 1930",
+        };
+        for (String line : lines) {
+            assertEquals(line, TaskCodec.encode(TaskCodec.decode(line)));
+        }
+    }
+
+    @Test
+    public void decode_fields_parsed() {
+        Task task = TaskCodec.decode("E | 1 | exams | 2025-03-08 1530 | 2025-03-10 1930");
+        Event event = assertInstanceOf(Event.class, task);
+        assertTrue(event.isDone());
+        assertEquals("exams", event.getDescription());
+        assertEquals(LocalDateTime.of(2025, 3, 8, 15, 30), event.getFrom());
+        assertEquals(LocalDateTime.of(2025, 3, 10, 19, 30), event.getTo());
+    }
+
+    @Test
+    public void decode_malformedLines_returnsNull() {
+        assertNull(TaskCodec.decode(""));
+        assertNull(TaskCodec.decode("T | 0"));
+        assertNull(TaskCodec.decode("X | 0 | unknown"));
+        assertNull(TaskCodec.decode("D | 0 | no date"));
+        assertNull(TaskCodec.decode("D | 0 | bad date | 2025-13-01 1930"));
+        assertNull(TaskCodec.decode("E | 0 | one date | 2025-03-08 1530"));
+    }
+
+    @Test
+    public void parseTimestamp_matchesFormatter() {
+        for (String text : new String[] {"2025-03-01 1930", "2024-02-29 2359", "2025-02-30 1200"}) {
+            assertEquals(LocalDateTime.parse(text, DateFormats.INPUT), TaskCodec.parseTimestamp(text));
+        }
+    }
+
+    @Test
+    public void decode_idField_parsedOrRejected() {
+        assertEquals(42, TaskCodec.decode("42 | T | 0 | buy milk").getId());
+        assertEquals(0, TaskCodec.decode("T | 0 | buy milk").getId());
+        assertNull(TaskCodec.decode("0 | T | 0 | buy milk"));
+        assertNull(TaskCodec.decode("4x | T | 0 | buy milk"));
+    }
+
+    @Test
+    public void render_cachedText_followsDoneFlagAndId() {
+        for (boolean isRenderCaching : new boolean[] {true, false}) {
+            Task.setRenderCaching(isRenderCaching);
+            Deadline task = new Deadline("essay", LocalDateTime.of(2030, 3, 5, 12, 0));
+            String display = task.toString();
+            assertEquals("[D][ ] essay (by: " + task.getBy().format(DateFormats.DISPLAY) + ")", display);
+            assertEquals("D | 0 | essay | 2030-03-05 1200", task.toFileFormat());
+
+            task.markAsDone();
+            task.setId(9);
+            assertEquals(display.replace("[ ]", "[X]"), task.toString());
+            assertEquals("9 | D | 1 | essay | 2030-03-05 1200", task.toFileFormat());
+        }
+        Task.setRenderCaching(true);
+    }
+}
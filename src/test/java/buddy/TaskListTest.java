@@ -2,9 +2,21 @@ package buddy;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TaskListTest {
     @Test
@@ -17,4 +29,136 @@ public class TaskListTest {
         assertEquals(1, tasks.size());
         assertEquals("Read book", tasks.get(0).getDescription());
     }
+
+    @Test
+    public void findTasks_indexedSearch_matchesFullScan() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        tasks.add(new ToDo("return books to library"));
+        tasks.add(new ToDo("buy milk"));
+        TaskList taskList = new TaskList(tasks);
+        taskList.addTask(new ToDo("bake bread"));
+        taskList.addTask(new ToDo("borrow book"));
+        taskList.deleteTask(1);
+
+        for (String keyword : new String[] {"book", "BOK", "brea", "milk", "xyz", "to", "b"}) {
+            assertEquals(FuzzySearch.fuzzySearch(taskList.getTasks(), keyword), taskList.findTasks(keyword));
+        }
+    }
+
+    @Test
+    public void indexSet_parse_mergesAndRoundTrips() {
+        assertEquals("1,4,9-20", IndexSet.parse("9-12, 4,13-20,1,10").toString());
+        assertEquals(14, IndexSet.parse("1,4,9-20").size());
+        assertNull(IndexSet.parse("0-3"));
+        assertNull(IndexSet.parse("5-2"));
+        assertNull(IndexSet.parse("1,,2"));
+        assertNull(IndexSet.parse("x"));
+    }
+
+    @Test
+    public void bulkChanges_rangesAndSets_applyInOnePass() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        TaskList taskList = new TaskList(tasks);
+
+        taskList.markTasksAsDone(IndexSet.parse("1,3-4"));
+        assertTrue(taskList.get(2).isDone());
+        taskList.deleteTasks(IndexSet.parse("2-4,9"));
+
+        assertEquals(6, taskList.size());
+        assertEquals("task 5", taskList.get(1).getDescription());
+        assertEquals("task 10", taskList.get(5).getDescription());
+
+        long version = taskList.getVersion();
+        taskList.deleteTasks(IndexSet.parse("5-7"));
+        assertEquals(version, taskList.getVersion());
+        assertEquals(6, taskList.size());
+    }
+
+    @Test
+    public void timeQueries_deadlinesAndEvents_usesTimeOrder() throws Exception {
+        TaskList taskList = new TaskList(new ArrayList<>());
+        Storage storage = new Storage(Paths.get("data", "Buddy.txt").toString());
+        Parser.parseCommand("deadline report /by 2030-03-05 1200", taskList, storage);
+        Parser.parseCommand("todo no time", taskList, storage);
+        Parser.parseCommand("event trip /from 2030-03-01 0900 /to 2030-03-03 1800", taskList, storage);
+        Parser.parseCommand("deadline essay /by 2030-03-07 2359", taskList, storage);
+        Parser.parseCommand("deadline taxes /by 2030-04-30 2359", taskList, storage);
+        Parser.parseCommand("delete 5", taskList, storage);
+
+        String due = Parser.parseCommand("due before 2030-03-06", taskList, storage);
+        assertTrue(due.indexOf("trip") < due.indexOf("report"), due);
+        assertFalse(due.contains("essay"), due);
+
+        String between = Parser.parseCommand("between 2030-03-05 and 2030-03-07", taskList, storage);
+        assertTrue(between.contains("report") && between.contains("essay") && !between.contains("trip"), between);
+
+        String upcoming = Parser.parseCommand("upcoming 2", taskList, storage);
+        assertTrue(upcoming.contains("#3 [E]") && upcoming.contains("#1 [D]") && !upcoming.contains("essay"), upcoming);
+        assertTrue(Parser.parseCommand("due before 2000-01-01", taskList, storage).startsWith("📅 No deadlines"));
+    }
+
+    @Test
+    public void concurrentWritersAndReaders_keepListConsistent() throws Exception {
+        int writers = 8;
+        int tasksPerWriter = 500;
+        TaskList taskList = new TaskList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 4);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < tasksPerWriter; i++) {
+                    taskList.addTask(new ToDo("writer " + writer + " task " + i));
+                    if (i % 10 == 9) {
+                        taskList.markTaskAsDone(1);
+                        taskList.deleteTask(taskList.size());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int previousSize = 0;
+                while (isWriting.get()) {
+                    List<Task> snapshot = taskList.snapshot();
+                    assertTrue(snapshot.size() >= previousSize - writers, "snapshot shrank too far");
+                    for (int i = 1; i < snapshot.size(); i++) {
+                        assertTrue(snapshot.get(i - 1).getId() < snapshot.get(i).getId(), "IDs out of order");
+                    }
+                    taskList.findTasks("task");
+                    previousSize = snapshot.size();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> result : results.subList(0, writers)) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        isWriting.set(false);
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int expectedSize = writers * (tasksPerWriter - tasksPerWriter / 10);
+        assertEquals(expectedSize, taskList.size());
+        assertEquals(expectedSize, taskList.snapshot().size());
+        assertTrue(taskList.get(0).isDone());
+        Set<Long> ids = new HashSet<>();
+        for (Task task : taskList.snapshot()) {
+            assertTrue(ids.add(task.getId()), "duplicate ID " + task.getId());
+            assertEquals(task, taskList.getById(task.getId()));
+        }
+    }
 }